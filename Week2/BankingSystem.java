@@ -1,8 +1,44 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
 
 /**
  * ╔══════════════════════════════════════════════════════════╗
@@ -27,39 +63,397 @@ import java.util.Scanner;
  *    ✔ Classes & Objects  (Bank manages a collection of accounts)
  *
  *  Architecture:
- *    Transaction        → data class for each transaction
+ *    Money              → fixed-point helpers: amounts are long paise (₹1 = 100)
+ *    AccountIdAllocator → pluggable, collision-free account-number source
+ *    Transaction        → display view of one journal entry
+ *    TransactionJournal → shared off-heap, column-per-field history store
  *    BankAccount        → abstract base with all shared logic
  *    SavingsAccount     → 4% interest, min balance ₹500
  *    CurrentAccount     → no interest, overdraft allowed up to ₹10k
- *    FDAccount          → locked for a period, higher interest
+ *    FDAccount          → locked for a period, higher interest, has a maturity date
  *    Bank               → manages all accounts, drives the menu
+ *    WriteAheadLog      → durable log of every balance change (+ snapshots)
+ *    InterestRun        → parallel (fork-join) month-end interest posting
+ *    StatementExporter  → streams an account's history to CSV / binary files
+ *    BankAggregates     → running dashboard totals, kept up to date per change
+ *
+ *  Concurrency:
+ *    Every balance change happens while holding the account's monitor.
+ *    Transfers lock BOTH accounts, always in account-number order, so
+ *    A→B and B→A running at the same time can never deadlock.
+ *    new Bank(name, true) switches on the concurrent ledger mode
+ *    (ConcurrentHashMap index, silent transfer(...) API) used by
+ *    BankingSystemStress.
+ *
+ *  Batching:
+ *    Bank.submitBatch(List<TransferCommand>) validates and applies the
+ *    commands in list order on the calling thread, resolving each
+ *    account number once per batch. Results come back as one
+ *    TransferStatus byte per command – no console output.
+ *    BankingSystemBench measures throughput.
+ *
+ *  Durability:
+ *    Bank.open(name, dir, ...) recovers from dir (snapshot + log tail)
+ *    and logs every change to a write-ahead log before applying it.
+ *    Log records are group-committed: fsync after N records or T ms.
+ *    snapshot() rotates the log, so recovery only replays the tail.
  */
 
+// ═══════════════════════════════════════════════════════════
+//  MONEY – fixed-point amounts in paise
+// ═══════════════════════════════════════════════════════════
+/**
+ *  Every amount in the banking module is a long count of paise
+ *  (₹1 = 100 paise). Unlike double there is no drift (0.1 + 0.2 is
+ *  exact), and unlike BigDecimal nothing is allocated.
+ *
+ *  All arithmetic goes through here so overflow is always checked
+ *  (Math.*Exact throws ArithmeticException) and all interest rounding
+ *  uses one rule.
+ */
+final class Money {
+
+    public static final int          PAISE_PER_RUPEE   = 100;
+    public static final RoundingMode INTEREST_ROUNDING = RoundingMode.HALF_EVEN;  // banker's rounding
+
+    private Money() { }   // static helpers only
+
+    // ── Conversions ───────────────────────────────────────────
+    public static long ofRupees(long rupees) {
+        return Math.multiplyExact(rupees, PAISE_PER_RUPEE);
+    }
+
+    // Only for user input: rounds a typed amount like 12.345 to the nearest paisa
+    public static long fromDouble(double rupees) {
+        if (Double.isNaN(rupees) || Double.isInfinite(rupees))
+            throw new ArithmeticException("Not a valid amount: " + rupees);
+        return Math.round(rupees * PAISE_PER_RUPEE);   // saturates, callers validate range
+    }
+
+    // ── Checked arithmetic ────────────────────────────────────
+    public static long add(long a, long b)      { return Math.addExact(a, b); }
+    public static long subtract(long a, long b) { return Math.subtractExact(a, b); }
+
+    // amount × annualRateBp / (10 000 × periodsPerYear), rounded with mode.
+    // Rates are in basis points: 4% p.a. = 400.
+    public static long interest(long amount, int annualRateBp, int periodsPerYear, RoundingMode mode) {
+        long numerator   = Math.multiplyExact(amount, annualRateBp);
+        long denominator = 10_000L * periodsPerYear;
+        return divide(numerator, denominator, mode);
+    }
+
+    public static long monthlyInterest(long amount, int annualRateBp) {
+        return interest(amount, annualRateBp, 12, INTEREST_ROUNDING);
+    }
+
+    // Integer division with an explicit RoundingMode (same semantics as BigDecimal)
+    public static long divide(long numerator, long denominator, RoundingMode mode) {
+        long quotient  = numerator / denominator;
+        long remainder = numerator % denominator;
+        if (remainder == 0) return quotient;
+
+        int  sign     = Long.signum(numerator) * Long.signum(denominator);   // sign of the exact result
+        long absRem   = Math.abs(remainder);
+        long absOther = Math.abs(denominator) - absRem;    // distance to the next step
+
+        switch (mode) {
+            case DOWN:      return quotient;
+            case UP:        return quotient + sign;
+            case FLOOR:     return sign < 0 ? quotient - 1 : quotient;
+            case CEILING:   return sign > 0 ? quotient + 1 : quotient;
+            case HALF_UP:   return absRem >= absOther ? quotient + sign : quotient;
+            case HALF_DOWN: return absRem >  absOther ? quotient + sign : quotient;
+            case HALF_EVEN:
+                if (absRem != absOther) return absRem > absOther ? quotient + sign : quotient;
+                return (quotient & 1) == 0 ? quotient : quotient + sign;
+            default:
+                throw new ArithmeticException("Rounding necessary for " + numerator + "/" + denominator);
+        }
+    }
+
+    // ── Display ───────────────────────────────────────────────
+    // 123456789 → "1,234,567.89"  (use with "₹%s" in format strings)
+    public static String format(long paise) {
+        long   rupees = Math.abs(paise / PAISE_PER_RUPEE);
+        long   cents  = Math.abs(paise % PAISE_PER_RUPEE);
+        String sign   = paise < 0 ? "-" : "";
+        return String.format("%s%,d.%02d", sign, rupees, cents);
+    }
+}
+
+
+// ═══════════════════════════════════════════════════════════
+//  ACCOUNT NUMBERS – allocation + check digits
+// ═══════════════════════════════════════════════════════════
+/**
+ *  An account is identified by a positive long id. Its printable number
+ *  is the type prefix, then id × 10 + Luhn check digit, zero-padded:
+ *
+ *      id 42  →  "SAV" + "000000424"  →  SAV000000424
+ *
+ *  The check digit catches any single mistyped digit and most swapped
+ *  neighbours before a lookup is even attempted.
+ */
+interface AccountIdAllocator {
+    long next();                     // unique, > 0
+    void reserveThrough(long id);    // never hand out ids <= id again (after recovery)
+}
+
+/**
+ *  Lock-free allocator: threads lease blocks of ids from one AtomicLong
+ *  (one getAndAdd per BLOCK_SIZE accounts) and hand them out from a
+ *  thread-local cursor – no shared state on the common path, no Random,
+ *  and ids can never repeat.
+ */
+class BlockIdAllocator implements AccountIdAllocator {
+
+    private static final int BLOCK_SIZE = 1_024;
+
+    private final AtomicLong nextBlock = new AtomicLong(1);
+
+    // [0] = next id to hand out, [1] = end of the leased block (exclusive)
+    private final ThreadLocal<long[]> lease = ThreadLocal.withInitial(() -> new long[]{0, 0});
+
+    @Override
+    public long next() {
+        long[] block = lease.get();
+        if (block[0] == block[1]) {
+            block[0] = nextBlock.getAndAdd(BLOCK_SIZE);
+            block[1] = block[0] + BLOCK_SIZE;
+        }
+        return block[0]++;
+    }
+
+    // Call before any accounts are opened (blocks already leased are not revoked)
+    @Override
+    public void reserveThrough(long id) {
+        nextBlock.accumulateAndGet(id + 1, Math::max);
+    }
+}
+
+final class AccountNumbers {
+
+    private static final int DIGITS = 9;   // zero-padded numeric part (id + check digit)
+
+    private AccountNumbers() { }
+
+    public static String format(String accountType, long id) {
+        long encoded = Math.addExact(Math.multiplyExact(id, 10), checkDigit(id));
+        String digits = Long.toString(encoded);
+        StringBuilder sb = new StringBuilder(3 + Math.max(DIGITS, digits.length()));
+        sb.append(accountType, 0, 3);
+        for (int i = digits.length(); i < DIGITS; i++) sb.append('0');
+        for (int i = 0; i < 3; i++) sb.setCharAt(i, Character.toUpperCase(sb.charAt(i)));
+        return sb.append(digits).toString();
+    }
+
+    // The id inside a well-formed number, or -1 (bad format / check digit)
+    public static long parseId(String number) {
+        if (number == null || number.length() < 4) return -1;
+        long encoded = 0;
+        for (int i = 3; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c < '0' || c > '9' || encoded > Long.MAX_VALUE / 10) return -1;
+            encoded = encoded * 10 + (c - '0');
+        }
+        long id = encoded / 10;
+        return (id > 0 && checkDigit(id) == encoded % 10) ? id : -1;
+    }
+
+    public static boolean isValid(String number) { return parseId(number) > 0; }
+
+    // Luhn (mod 10) check digit for id
+    static int checkDigit(long id) {
+        int     sum    = 0;
+        boolean doubled = true;   // rightmost digit of id sits next to the check digit
+        for (long n = id; n > 0; n /= 10) {
+            int d = (int) (n % 10);
+            if (doubled) { d *= 2; if (d > 9) d -= 9; }
+            sum += d;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
+
+
 // ═══════════════════════════════════════════════════════════
 //  TRANSACTION RECORD
 // ═══════════════════════════════════════════════════════════
+// History lives in TransactionJournal; a Transaction object is only
+// built when an entry is displayed, so strings are formatted lazily.
 class Transaction {
 
     public enum Type { DEPOSIT, WITHDRAWAL, TRANSFER_IN, TRANSFER_OUT, INTEREST }
 
+    private static final Type[] TYPES = Type.values();   // ordinal → Type without copying
+
     private final Type   type;
-    private final double amount;
+    private final long   amount;       // paise
     private final String description;
-    private final String timestamp;
+    private final long   epochNanos;
+
+    // Formatters are immutable and thread-safe – build the pattern once
+    private static final java.time.format.DateTimeFormatter TIMESTAMP_FORMAT =
+            java.time.format.DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
 
-    public Transaction(Type type, double amount, String description) {
+    public Transaction(Type type, long amount, String description, long epochNanos) {
         this.type        = type;
         this.amount      = amount;
         this.description = description;
-        this.timestamp   = java.time.LocalDateTime.now()
-                .format(java.time.format.DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm"));
+        this.epochNanos  = epochNanos;
+    }
+
+    static Type typeOf(byte code) { return TYPES[code]; }
+
+    public boolean isCredit() {
+        return type == Type.DEPOSIT || type == Type.TRANSFER_IN || type == Type.INTEREST;
+    }
+
+    public String getTimestamp() {
+        java.time.Instant instant = java.time.Instant.ofEpochSecond(
+                epochNanos / 1_000_000_000L, epochNanos % 1_000_000_000L);
+        return java.time.LocalDateTime.ofInstant(instant, java.time.ZoneId.systemDefault())
+                .format(TIMESTAMP_FORMAT);
     }
 
     @Override
     public String toString() {
-        String sign = (type == Type.DEPOSIT || type == Type.TRANSFER_IN || type == Type.INTEREST)
-                ? "+" : "-";
-        return String.format("  %s  %-20s  %s₹%,.2f", timestamp, description, sign, amount);
+        return String.format("  %s  %-20s  %s₹%s", getTimestamp(), description,
+                isCredit() ? "+" : "-", Money.format(amount));
+    }
+}
+
+
+// ═══════════════════════════════════════════════════════════
+//  TRANSACTION JOURNAL – append-only, off-heap, columnar
+// ═══════════════════════════════════════════════════════════
+/**
+ *  One journal is shared by every account. Each entry is a row index;
+ *  each field is its own column in direct (off-heap) ByteBuffers, so
+ *  millions of entries add almost nothing to the GC heap:
+ *
+ *    type         byte   Transaction.Type ordinal
+ *    amount       long   paise
+ *    epochNanos   long   time of the operation
+ *    counterparty int    interned account number (NO_COUNTERPARTY if none)
+ *    previous     long   row of the same account's previous entry
+ *
+ *  The "previous" column chains an account's rows backwards, so a mini
+ *  statement walks only its last N rows instead of scanning history.
+ *
+ *  Columns are split into fixed-size segments allocated on demand.
+ *  Appends claim a row with one atomic increment; different rows never
+ *  share bytes, so concurrent appends need no lock. An account's rows
+ *  are written and read under that account's monitor.
+ */
+class TransactionJournal {
+
+    static final long NONE            = -1;   // "no previous entry"
+    static final int  NO_COUNTERPARTY = -1;
+
+    private static final int SEGMENT_BITS = 16;                  // 65 536 rows per segment
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int MAX_SEGMENTS = 1 << 15;             // ~2 billion rows
+
+    private static final class Segment {
+        final ByteBuffer types          = column(Byte.BYTES);
+        final ByteBuffer amounts        = column(Long.BYTES);
+        final ByteBuffer epochNanos     = column(Long.BYTES);
+        final ByteBuffer counterparties = column(Integer.BYTES);
+        final ByteBuffer previous       = column(Long.BYTES);
+
+        private static ByteBuffer column(int width) {
+            return ByteBuffer.allocateDirect(SEGMENT_SIZE * width).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    private final AtomicReferenceArray<Segment> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+    private final AtomicLong nextRow = new AtomicLong();
+
+    // Counterparty dictionary: account number ↔ small int id
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private final List<String>         namesById = new ArrayList<>();
+
+    // ── Interning ─────────────────────────────────────────────
+    public int intern(String accountNumber) {
+        Integer id = idsByName.get(accountNumber);
+        if (id != null) return id;
+        synchronized (namesById) {
+            return idsByName.computeIfAbsent(accountNumber, k -> {
+                namesById.add(k);
+                return namesById.size() - 1;
+            });
+        }
+    }
+
+    public String nameOf(int id) {
+        if (id == NO_COUNTERPARTY) return "";
+        synchronized (namesById) { return namesById.get(id); }
+    }
+
+    // ── Append ────────────────────────────────────────────────
+    public long append(Transaction.Type type, long amount, long epochNanos,
+                       int counterparty, long previousRow) {
+        long    row = nextRow.getAndIncrement();
+        Segment seg = segment(row);
+        int     i   = (int) (row & SEGMENT_MASK);
+        seg.types.put(i, (byte) type.ordinal());
+        seg.amounts.putLong(i * Long.BYTES, amount);
+        seg.epochNanos.putLong(i * Long.BYTES, epochNanos);
+        seg.counterparties.putInt(i * Integer.BYTES, counterparty);
+        seg.previous.putLong(i * Long.BYTES, previousRow);
+        return row;
+    }
+
+    private Segment segment(long row) {
+        int index = (int) (row >>> SEGMENT_BITS);
+        if (index >= MAX_SEGMENTS) throw new IllegalStateException("Transaction journal is full");
+        Segment seg = segments.get(index);
+        if (seg == null) {
+            synchronized (segments) {
+                seg = segments.get(index);
+                if (seg == null) {
+                    seg = new Segment();
+                    segments.set(index, seg);
+                }
+            }
+        }
+        return seg;
+    }
+
+    // ── Column reads ──────────────────────────────────────────
+    public Transaction.Type type(long row) {
+        return Transaction.typeOf(segments.get((int) (row >>> SEGMENT_BITS)).types
+                .get((int) (row & SEGMENT_MASK)));
+    }
+
+    public long amount(long row) {
+        return segments.get((int) (row >>> SEGMENT_BITS)).amounts
+                .getLong((int) (row & SEGMENT_MASK) * Long.BYTES);
+    }
+
+    public long epochNanos(long row) {
+        return segments.get((int) (row >>> SEGMENT_BITS)).epochNanos
+                .getLong((int) (row & SEGMENT_MASK) * Long.BYTES);
+    }
+
+    public int counterparty(long row) {
+        return segments.get((int) (row >>> SEGMENT_BITS)).counterparties
+                .getInt((int) (row & SEGMENT_MASK) * Integer.BYTES);
+    }
+
+    public long previous(long row) {
+        return segments.get((int) (row >>> SEGMENT_BITS)).previous
+                .getLong((int) (row & SEGMENT_MASK) * Long.BYTES);
+    }
+
+    public long size() { return nextRow.get(); }
+
+    static long nowNanos() {
+        java.time.Instant now = java.time.Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
     }
 }
 
@@ -68,7 +462,7 @@ class Transaction {
 //  INTERFACE – Transferable
 // ═══════════════════════════════════════════════════════════
 interface Transferable {
-    boolean transferTo(BankAccount target, double amount, int pin);
+    boolean transferTo(BankAccount target, long amount, int pin);
 }
 
 
@@ -81,42 +475,74 @@ abstract class BankAccount implements Transferable {
     private final String accountNumber;
     private       String holderName;
     private       int    pin;
-    private       double balance;
-    private final List<Transaction> history = new ArrayList<>();
+    private       long   balance;   // paise
+    private final byte[] numberBytes;                   // UTF-8, written to the log
+
+    // ── Durability (null = in-memory only) ───────────────────
+    private WriteAheadLog wal;
+    private long          walSeq;                       // last log record applied here
+
+    // ── Running totals of the owning bank (null = not registered) ──
+    private BankAggregates aggregates;
+
+    // ── History (rows in the shared journal) ─────────────────
+    static final TransactionJournal JOURNAL = new TransactionJournal();
+    private final int  journalId;                       // interned accountNumber
+    private       long lastEntry  = TransactionJournal.NONE;
+    private       int  entryCount;
 
     // ── Protected (visible to subclasses) ────────────────────
     protected final String accountType;
 
     // ── Constructor ───────────────────────────────────────────
-    public BankAccount(String holderName, int pin, double initialDeposit, String accountType) {
+    public BankAccount(String holderName, int pin, long initialDeposit, String accountType) {
         this.holderName    = holderName;
         this.pin           = pin;
         this.accountType   = accountType;
         this.accountNumber = generateAccountNumber();
+        this.numberBytes   = accountNumber.getBytes(StandardCharsets.UTF_8);
+        this.journalId     = JOURNAL.intern(accountNumber);
 
         if (initialDeposit >= getMinimumBalance()) {
             this.balance = initialDeposit;
-            record(new Transaction(Transaction.Type.DEPOSIT, initialDeposit, "Initial deposit"));
+            record(Transaction.Type.DEPOSIT, initialDeposit, TransactionJournal.NO_COUNTERPARTY,
+                    TransactionJournal.nowNanos());
         } else {
             throw new IllegalArgumentException(
-                    "Initial deposit must be at least ₹" + getMinimumBalance());
+                    "Initial deposit must be at least ₹" + Money.format(getMinimumBalance()));
         }
     }
 
+    // Recovery constructor: existing number, zero balance, no validation.
+    // The balance is restored afterwards from the snapshot or the log.
+    protected BankAccount(String accountNumber, String holderName, int pin, String accountType) {
+        this.holderName    = holderName;
+        this.pin           = pin;
+        this.accountType   = accountType;
+        this.accountNumber = accountNumber;
+        this.numberBytes   = accountNumber.getBytes(StandardCharsets.UTF_8);
+        this.journalId     = JOURNAL.intern(accountNumber);
+    }
+
+    // ── Account numbers (pluggable, shared by all accounts) ───
+    private static volatile AccountIdAllocator idAllocator = new BlockIdAllocator();
+
+    static void setIdAllocator(AccountIdAllocator allocator) { idAllocator = allocator; }
+    static AccountIdAllocator getIdAllocator()               { return idAllocator;      }
+
     private String generateAccountNumber() {
-        return accountType.substring(0, 3).toUpperCase()
-                + (int)(Math.random() * 900_000 + 100_000);
+        return AccountNumbers.format(accountType, idAllocator.next());
     }
 
     // ── Abstract methods (subclasses define specifics) ────────
-    public abstract double calculateInterest();      // each type has different rate
-    public abstract double getMinimumBalance();      // each type has different minimum
+    public abstract long   calculateInterest();      // each type has different rate
+    public abstract long   getMinimumBalance();      // each type has different minimum
     public abstract String getAccountSummary();      // type-specific info
 
     // ── Getters (controlled read access) ─────────────────────
     public String getAccountNumber() { return accountNumber; }
     public String getHolderName()    { return holderName;    }
-    public double getBalance()       { return balance;       }
+    public synchronized long   getBalance() { return balance; }
     public String getAccountType()   { return accountType;   }
 
     // ── Authentication ────────────────────────────────────────
@@ -130,96 +556,288 @@ abstract class BankAccount implements Transferable {
 
     // ── Core banking operations ───────────────────────────────
 
-    public boolean deposit(double amount) {
+    public synchronized boolean deposit(long amount) {
         if (amount <= 0) {
             System.out.println("  ✘ Deposit amount must be positive.");
             return false;
         }
-        balance += amount;
-        record(new Transaction(Transaction.Type.DEPOSIT, amount, "Cash deposit"));
-        System.out.printf("  ✔ Deposited ₹%,.2f | Balance: ₹%,.2f%n", amount, balance);
+        long updated = Money.add(balance, amount);
+        long now     = log(WriteAheadLog.DEPOSIT, null, amount);
+        setBalance(updated);
+        record(Transaction.Type.DEPOSIT, amount, TransactionJournal.NO_COUNTERPARTY, now);
+        System.out.printf("  ✔ Deposited ₹%s | Balance: ₹%s%n",
+                Money.format(amount), Money.format(balance));
+        return true;
+    }
+
+    // Same as deposit() without the console receipt (batch / bench use)
+    synchronized boolean depositQuietly(long amount) {
+        if (amount <= 0) return false;
+        long updated = Money.add(balance, amount);
+        long now     = log(WriteAheadLog.DEPOSIT, null, amount);
+        setBalance(updated);
+        record(Transaction.Type.DEPOSIT, amount, TransactionJournal.NO_COUNTERPARTY, now);
         return true;
     }
 
-    public boolean withdraw(double amount, int enteredPin) {
+    public synchronized boolean withdraw(long amount, int enteredPin) {
         if (!authenticate(enteredPin)) return false;
         if (amount <= 0) {
             System.out.println("  ✘ Withdrawal amount must be positive.");
             return false;
         }
         if (!canWithdraw(amount)) {
-            System.out.printf("  ✘ Cannot withdraw ₹%,.2f. Available: ₹%,.2f%n",
-                    amount, getWithdrawableAmount());
+            String lock = withdrawalLock();
+            if (lock != null) System.out.println("  ✘ " + lock);
+            System.out.printf("  ✘ Cannot withdraw ₹%s. Available: ₹%s%n",
+                    Money.format(amount), Money.format(getWithdrawableAmount()));
             return false;
         }
-        balance -= amount;
-        record(new Transaction(Transaction.Type.WITHDRAWAL, amount, "Cash withdrawal"));
-        System.out.printf("  ✔ Withdrew ₹%,.2f | Balance: ₹%,.2f%n", amount, balance);
+        long updated = Money.subtract(balance, amount);
+        long now     = log(WriteAheadLog.WITHDRAW, null, amount);
+        setBalance(updated);
+        record(Transaction.Type.WITHDRAWAL, amount, TransactionJournal.NO_COUNTERPARTY, now);
+        System.out.printf("  ✔ Withdrew ₹%s | Balance: ₹%s%n",
+                Money.format(amount), Money.format(balance));
         return true;
     }
 
-    // Subclasses may override withdrawal rules (e.g. overdraft)
-    protected boolean canWithdraw(double amount) {
-        return (balance - amount) >= getMinimumBalance();
+    // Subclasses may override withdrawal rules (e.g. overdraft).
+    // Must stay silent – batches call it for every command.
+    protected boolean canWithdraw(long amount) {
+        return Money.subtract(balance, amount) >= getMinimumBalance();
     }
 
-    protected double getWithdrawableAmount() {
-        return balance - getMinimumBalance();
+    // Why withdrawals are refused outright (e.g. an unmatured FD), or null.
+    // Interactive callers print it when canWithdraw() says no.
+    protected String withdrawalLock() { return null; }
+
+    protected long getWithdrawableAmount() {
+        return Money.subtract(balance, getMinimumBalance());
     }
 
     @Override
-    public boolean transferTo(BankAccount target, double amount, int pin) {
+    public boolean transferTo(BankAccount target, long amount, int pin) {
         if (!authenticate(pin)) return false;
-        if (!canWithdraw(amount)) {
-            System.out.printf("  ✘ Insufficient funds for transfer. Available: ₹%,.2f%n",
-                    getWithdrawableAmount());
+        if (target == this) {
+            System.out.println("  ✘ Cannot transfer to the same account.");
             return false;
         }
-        balance -= amount;
-        target.balance += amount;
-        record(new Transaction(Transaction.Type.TRANSFER_OUT, amount,
-                "Transfer to " + target.getAccountNumber()));
-        target.record(new Transaction(Transaction.Type.TRANSFER_IN, amount,
-                "Transfer from " + this.accountNumber));
-        System.out.printf("  ✔ Transferred ₹%,.2f to %s (%s)%n",
-                amount, target.holderName, target.accountNumber);
+        synchronized (lockFirst(this, target)) {
+            synchronized (lockSecond(this, target)) {
+                if (!canWithdraw(amount)) {
+                    String lock = withdrawalLock();
+                    if (lock != null) System.out.println("  ✘ " + lock);
+                    System.out.printf("  ✘ Insufficient funds for transfer. Available: ₹%s%n",
+                            Money.format(getWithdrawableAmount()));
+                    return false;
+                }
+                moveFunds(target, amount);
+            }
+        }
+        System.out.printf("  ✔ Transferred ₹%s to %s (%s)%n",
+                Money.format(amount), target.holderName, target.accountNumber);
         return true;
     }
 
-    public void applyInterest() {
-        double interest = calculateInterest();
+    // Silent variant for the concurrent ledger: no console output,
+    // just true/false. Same lock order as transferTo().
+    boolean tryTransfer(BankAccount target, long amount, int enteredPin) {
+        if (enteredPin != this.pin || amount <= 0 || target == this) return false;
+        return transferValidated(target, amount) == TransferStatus.OK;
+    }
+
+    boolean pinMatches(int enteredPin) { return enteredPin == this.pin; }
+
+    int pinForSnapshot() { return pin; }
+
+    // PIN, amount and target != this already checked by the caller
+    // (e.g. a batch). Returns a TransferStatus code.
+    byte transferValidated(BankAccount target, long amount) {
+        synchronized (lockFirst(this, target)) {
+            synchronized (lockSecond(this, target)) {
+                if (!canWithdraw(amount))
+                    return withdrawalLock() != null ? TransferStatus.FD_LOCKED : TransferStatus.INSUFFICIENT_FUNDS;
+                moveFunds(target, amount);
+                return TransferStatus.OK;
+            }
+        }
+    }
+
+    // Caller must hold BOTH monitors
+    private void moveFunds(BankAccount target, long amount) {
+        // Check both sides for overflow before anything is logged or written
+        long debited  = Money.subtract(balance, amount);
+        long credited = Money.add(target.balance, amount);
+        long now      = log(WriteAheadLog.TRANSFER, target, amount);
+        setBalance(debited);
+        target.setBalance(credited);
+        record(Transaction.Type.TRANSFER_OUT, amount, target.journalId, now);
+        target.record(Transaction.Type.TRANSFER_IN, amount, this.journalId, now);
+    }
+
+    // ── Lock ordering (deadlock-free: lowest account number first) ──
+    private static BankAccount lockFirst(BankAccount a, BankAccount b) {
+        return a.accountNumber.compareTo(b.accountNumber) <= 0 ? a : b;
+    }
+
+    private static BankAccount lockSecond(BankAccount a, BankAccount b) {
+        return a.accountNumber.compareTo(b.accountNumber) <= 0 ? b : a;
+    }
+
+    public synchronized void applyInterest() {
+        long interest = calculateInterest();
         if (interest > 0) {
-            balance += interest;
-            record(new Transaction(Transaction.Type.INTEREST, interest,
-                    "Interest credited (" + getAccountType() + ")"));
-            System.out.printf("  ✔ Interest ₹%,.2f credited | New balance: ₹%,.2f%n",
-                    interest, balance);
+            long updated = Money.add(balance, interest);
+            long now     = log(WriteAheadLog.INTEREST, null, interest);
+            setBalance(updated);
+            record(Transaction.Type.INTEREST, interest, TransactionJournal.NO_COUNTERPARTY, now);
+            System.out.printf("  ✔ Interest ₹%s credited | New balance: ₹%s%n",
+                    Money.format(interest), Money.format(balance));
+        }
+    }
+
+    // Month-end run: computes interest ONCE and credits it, silently.
+    // Returns the amount credited (0 if none).
+    synchronized long postInterest() {
+        long interest = calculateInterest();
+        return interest > 0 ? creditInterest(interest) : 0;
+    }
+
+    // Credits an interest amount that was computed earlier
+    synchronized long creditInterest(long interest) {
+        long updated = Money.add(balance, interest);
+        long now     = log(WriteAheadLog.INTEREST, null, interest);
+        setBalance(updated);
+        record(Transaction.Type.INTEREST, interest, TransactionJournal.NO_COUNTERPARTY, now);
+        return interest;
+    }
+
+    // Every balance change after construction goes through here so the
+    // bank's running totals see each delta exactly once.
+    // Caller holds this account's monitor.
+    private void setBalance(long updated) {
+        long previous = balance;
+        balance = updated;
+        if (aggregates != null) aggregates.onBalanceChange(this, previous, updated);
+    }
+
+    // Starts reporting to a bank's totals, seeding them with the current balance
+    synchronized void attachAggregates(BankAggregates target) {
+        this.aggregates = target;
+        target.onBalanceChange(this, 0, balance);
+    }
+
+    // Caller holds this account's monitor (or is the constructor)
+    private void record(Transaction.Type type, long amount, int counterparty, long epochNanos) {
+        lastEntry = JOURNAL.append(type, amount, epochNanos, counterparty, lastEntry);
+        entryCount++;
+    }
+
+    // Write-ahead: the log record goes out BEFORE the balance changes.
+    // Returns the timestamp so the journal row and the log agree.
+    protected final long log(byte op, BankAccount other, long amount) {
+        long now = TransactionJournal.nowNanos();
+        if (wal != null) {
+            walSeq = wal.append(op, now, numberBytes,
+                    other == null ? null : other.numberBytes, amount);
+            if (other != null) other.walSeq = walSeq;
+        }
+        return now;
+    }
+
+    // ── Durability hooks (used by Bank) ───────────────────────
+
+    synchronized void attachLog(WriteAheadLog log) { this.wal = log; }
+
+    // Re-applies one logged change during recovery. Records already
+    // contained in the snapshot (seq <= walSeq) are skipped. Both legs
+    // of a transfer share one seq, which is why transfers to the same
+    // account are refused up front.
+    synchronized void replay(Transaction.Type type, long amount, BankAccount counterparty,
+                             long seq, long epochNanos) {
+        if (seq <= walSeq) return;
+        boolean credit = type == Transaction.Type.DEPOSIT
+                || type == Transaction.Type.TRANSFER_IN || type == Transaction.Type.INTEREST;
+        setBalance(credit ? Money.add(balance, amount) : Money.subtract(balance, amount));
+        record(type, amount, counterparty == null ? TransactionJournal.NO_COUNTERPARTY
+                : counterparty.journalId, epochNanos);
+        walSeq = seq;
+    }
+
+    // Snapshot state: the balance plus the last log record it includes
+    synchronized void writeSnapshot(DataOutputStream out) throws IOException {
+        out.writeUTF(accountNumber);
+        out.writeUTF(holderName);
+        out.writeInt(pin);
+        out.writeLong(balance);
+        out.writeLong(walSeq);
+    }
+
+    synchronized void restoreSnapshot(long balance, long walSeq) {
+        setBalance(balance);
+        this.walSeq  = walSeq;
+        if (balance != 0) {   // shows up as the opening entry of the statement
+            record(balance > 0 ? Transaction.Type.DEPOSIT : Transaction.Type.WITHDRAWAL,
+                    Math.abs(balance), TransactionJournal.NO_COUNTERPARTY, TransactionJournal.nowNanos());
+        }
+    }
+
+    // Copies this account's journal rows, oldest first, into dest.
+    // Returns the row count, or -(count) if dest is too small.
+    synchronized int copyHistoryRows(long[] dest) {
+        if (dest.length < entryCount) return -entryCount;
+        long row = lastEntry;
+        for (int i = entryCount - 1; i >= 0; i--) {
+            dest[i] = row;
+            row     = JOURNAL.previous(row);
         }
+        return entryCount;
     }
 
-    private void record(Transaction t) {
-        history.add(t);
+    // Builds the display object for one journal row – the only place
+    // descriptions are turned into strings.
+    private Transaction entryAt(long row) {
+        Transaction.Type type = JOURNAL.type(row);
+        String description;
+        switch (type) {
+            case DEPOSIT:
+                description = JOURNAL.previous(row) == TransactionJournal.NONE
+                        ? "Initial deposit" : "Cash deposit";
+                break;
+            case WITHDRAWAL:   description = "Cash withdrawal"; break;
+            case TRANSFER_OUT: description = "Transfer to "   + JOURNAL.nameOf(JOURNAL.counterparty(row)); break;
+            case TRANSFER_IN:  description = "Transfer from " + JOURNAL.nameOf(JOURNAL.counterparty(row)); break;
+            default:           description = "Interest credited (" + accountType + ")"; break;
+        }
+        return new Transaction(type, JOURNAL.amount(row), description, JOURNAL.epochNanos(row));
     }
 
     // ── Display methods ───────────────────────────────────────
 
-    public void displayInfo() {
+    public synchronized void displayInfo() {
         System.out.println("  ┌────────────────────────────────────────┐");
         System.out.printf ("  │  Account  : %-27s│%n", accountNumber);
         System.out.printf ("  │  Holder   : %-27s│%n", holderName);
         System.out.printf ("  │  Type     : %-27s│%n", accountType);
-        System.out.printf ("  │  Balance  : ₹%-26,.2f│%n", balance);
+        System.out.printf ("  │  Balance  : ₹%-26s│%n", Money.format(balance));
         System.out.println("  │  " + getAccountSummary());
         System.out.println("  └────────────────────────────────────────┘");
     }
 
-    public void printMiniStatement(int lastN) {
+    public synchronized void printMiniStatement(int lastN) {
         System.out.println("  --- Mini Statement: " + accountNumber + " ---");
-        int start = Math.max(0, history.size() - lastN);
-        for (int i = start; i < history.size(); i++) {
-            System.out.println(history.get(i));
+        // Walk back along this account's chain, then print oldest first
+        long[] rows = new long[Math.max(0, Math.min(lastN, entryCount))];
+        long   row  = lastEntry;
+        for (int i = rows.length - 1; i >= 0; i--) {
+            rows[i] = row;
+            row     = JOURNAL.previous(row);
         }
-        System.out.printf("  Current Balance: ₹%,.2f%n", balance);
+        for (long r : rows) {
+            System.out.println(entryAt(r));
+        }
+        System.out.printf("  Current Balance: ₹%s%n", Money.format(balance));
     }
 }
 
@@ -229,25 +847,29 @@ abstract class BankAccount implements Transferable {
 // ═══════════════════════════════════════════════════════════
 class SavingsAccount extends BankAccount {
 
-    private static final double ANNUAL_INTEREST_RATE = 4.0;   // 4% per annum
-    private static final double MINIMUM_BALANCE      = 500.0;
+    private static final int  ANNUAL_INTEREST_BP = 400;                    // 4% per annum
+    private static final long MINIMUM_BALANCE    = Money.ofRupees(500);
 
-    public SavingsAccount(String holderName, int pin, double initialDeposit) {
+    public SavingsAccount(String holderName, int pin, long initialDeposit) {
         super(holderName, pin, initialDeposit, "Savings");
     }
 
+    SavingsAccount(String accountNumber, String holderName, int pin) {   // recovery
+        super(accountNumber, holderName, pin, "Savings");
+    }
+
     @Override
-    public double calculateInterest() {
-        return getBalance() * ANNUAL_INTEREST_RATE / 100.0 / 12;  // monthly
+    public long calculateInterest() {
+        return Money.monthlyInterest(getBalance(), ANNUAL_INTEREST_BP);
     }
 
     @Override
-    public double getMinimumBalance() { return MINIMUM_BALANCE; }
+    public long getMinimumBalance() { return MINIMUM_BALANCE; }
 
     @Override
     public String getAccountSummary() {
-        return String.format("Interest: %.1f%% p.a. | Min Bal: ₹%.0f             │",
-                ANNUAL_INTEREST_RATE, MINIMUM_BALANCE);
+        return String.format("Interest: %.1f%% p.a. | Min Bal: ₹%d             │",
+                ANNUAL_INTEREST_BP / 100.0, MINIMUM_BALANCE / Money.PAISE_PER_RUPEE);
     }
 }
 
@@ -257,31 +879,36 @@ class SavingsAccount extends BankAccount {
 // ═══════════════════════════════════════════════════════════
 class CurrentAccount extends BankAccount {
 
-    private static final double OVERDRAFT_LIMIT = 10_000.0;
+    private static final long OVERDRAFT_LIMIT = Money.ofRupees(10_000);
 
-    public CurrentAccount(String holderName, int pin, double initialDeposit) {
+    public CurrentAccount(String holderName, int pin, long initialDeposit) {
         super(holderName, pin, initialDeposit, "Current");
     }
 
+    CurrentAccount(String accountNumber, String holderName, int pin) {   // recovery
+        super(accountNumber, holderName, pin, "Current");
+    }
+
     @Override
-    public double calculateInterest() { return 0.0; }  // no interest on current
+    public long calculateInterest() { return 0; }  // no interest on current
 
     @Override
-    public double getMinimumBalance() { return 0.0; }
+    public long getMinimumBalance() { return 0; }
 
     @Override
-    protected boolean canWithdraw(double amount) {
-        return (getBalance() - amount) >= -OVERDRAFT_LIMIT;   // can go negative
+    protected boolean canWithdraw(long amount) {
+        return Money.subtract(getBalance(), amount) >= -OVERDRAFT_LIMIT;   // can go negative
     }
 
     @Override
-    protected double getWithdrawableAmount() {
-        return getBalance() + OVERDRAFT_LIMIT;
+    protected long getWithdrawableAmount() {
+        return Money.add(getBalance(), OVERDRAFT_LIMIT);
     }
 
     @Override
     public String getAccountSummary() {
-        return String.format("No interest | Overdraft: ₹%.0f                │", OVERDRAFT_LIMIT);
+        return String.format("No interest | Overdraft: ₹%d                │",
+                OVERDRAFT_LIMIT / Money.PAISE_PER_RUPEE);
     }
 }
 
@@ -291,36 +918,55 @@ class CurrentAccount extends BankAccount {
 // ═══════════════════════════════════════════════════════════
 class FDAccount extends BankAccount {
 
-    private static final double ANNUAL_INTEREST_RATE = 7.5;
-    private final int tenureMonths;
+    private static final int  ANNUAL_INTEREST_BP = 750;                    // 7.5% per annum
+    private static final long MINIMUM_BALANCE    = Money.ofRupees(1_000);
+    private final int       tenureMonths;
+    private final LocalDate maturityDate;
     private int monthsCompleted;
 
-    public FDAccount(String holderName, int pin, double principal, int tenureMonths) {
+    public FDAccount(String holderName, int pin, long principal, int tenureMonths) {
         super(holderName, pin, principal, "Fixed Deposit");
         this.tenureMonths    = tenureMonths;
+        this.maturityDate    = LocalDate.now().plusMonths(tenureMonths);
         this.monthsCompleted = 0;
     }
 
+    FDAccount(String accountNumber, String holderName, int pin,
+              int tenureMonths, int monthsCompleted, LocalDate maturityDate) {   // recovery
+        super(accountNumber, holderName, pin, "Fixed Deposit");
+        this.tenureMonths    = tenureMonths;
+        this.maturityDate    = maturityDate;
+        this.monthsCompleted = monthsCompleted;
+    }
+
+    int getTenureMonths()    { return tenureMonths;    }
+    int getMonthsCompleted() { return monthsCompleted; }
+    public LocalDate getMaturityDate() { return maturityDate; }
+
+    void markMatured()       { monthsCompleted = tenureMonths; }   // replay of completeTenure()
+
     @Override
-    public double calculateInterest() {
-        return getBalance() * ANNUAL_INTEREST_RATE / 100.0 / 12;
+    public long calculateInterest() {
+        return Money.monthlyInterest(getBalance(), ANNUAL_INTEREST_BP);
     }
 
     @Override
-    public double getMinimumBalance() { return 1_000.0; }
+    public long getMinimumBalance() { return MINIMUM_BALANCE; }
 
     // FD cannot be withdrawn before maturity
     @Override
-    protected boolean canWithdraw(double amount) {
-        if (monthsCompleted < tenureMonths) {
-            System.out.println("  ✘ FD locked until maturity (" +
-                    (tenureMonths - monthsCompleted) + " months remaining).");
-            return false;
-        }
-        return true;
+    protected boolean canWithdraw(long amount) {
+        return monthsCompleted >= tenureMonths;
     }
 
-    public void completeTenure() {
+    @Override
+    protected String withdrawalLock() {
+        if (monthsCompleted >= tenureMonths) return null;
+        return "FD locked until maturity (" + (tenureMonths - monthsCompleted) + " months remaining).";
+    }
+
+    public synchronized void completeTenure() {
+        log(WriteAheadLog.MATURE, null, 0);
         monthsCompleted = tenureMonths;
         System.out.println("  ✔ FD matured! You may now withdraw.");
     }
@@ -328,7 +974,749 @@ class FDAccount extends BankAccount {
     @Override
     public String getAccountSummary() {
         return String.format("Rate: %.1f%% | Tenure: %d months (%d done)     │",
-                ANNUAL_INTEREST_RATE, tenureMonths, monthsCompleted);
+                ANNUAL_INTEREST_BP / 100.0, tenureMonths, monthsCompleted);
+    }
+}
+
+
+// ═══════════════════════════════════════════════════════════
+//  TRANSFER COMMAND – one entry in a batch
+// ═══════════════════════════════════════════════════════════
+class TransferCommand {
+
+    final String fromAccount;
+    final String toAccount;
+    final long   amount;   // paise
+    final int    pin;
+
+    public TransferCommand(String fromAccount, String toAccount, long amount, int pin) {
+        this.fromAccount = fromAccount;
+        this.toAccount   = toAccount;
+        this.amount      = amount;
+        this.pin         = pin;
+    }
+}
+
+
+// ═══════════════════════════════════════════════════════════
+//  TRANSFER STATUS – one result byte per batched transfer
+// ═══════════════════════════════════════════════════════════
+final class TransferStatus {
+
+    static final byte OK                 = 0;
+    static final byte UNKNOWN_ACCOUNT    = 1;
+    static final byte INVALID_PIN        = 2;
+    static final byte INVALID_AMOUNT     = 3;
+    static final byte INSUFFICIENT_FUNDS = 4;
+    static final byte FD_LOCKED          = 5;
+    static final byte SAME_ACCOUNT       = 6;
+
+    private TransferStatus() { }
+
+    static String describe(byte code) {
+        switch (code) {
+            case OK:                 return "OK";
+            case UNKNOWN_ACCOUNT:    return "UNKNOWN_ACCOUNT";
+            case INVALID_PIN:        return "INVALID_PIN";
+            case INVALID_AMOUNT:     return "INVALID_AMOUNT";
+            case INSUFFICIENT_FUNDS: return "INSUFFICIENT_FUNDS";
+            case FD_LOCKED:          return "FD_LOCKED";
+            case SAME_ACCOUNT:       return "SAME_ACCOUNT";
+            default:                 return "UNKNOWN(" + code + ")";
+        }
+    }
+}
+
+
+// ═══════════════════════════════════════════════════════════
+//  WRITE-AHEAD LOG – crash-safe record of every change
+// ═══════════════════════════════════════════════════════════
+/**
+ *  Record layout (native byte order):
+ *
+ *    int  bodyLength | int crc32(body) | body
+ *    body = long seq | long epochNanos | byte op | str account
+ *           | str other | long amount [| OPEN extras]
+ *    str  = short length + UTF-8 bytes   (length 0 = none)
+ *
+ *  Appends are encoded straight into one direct buffer. The buffer is
+ *  written and fsync'ed as a group ("group commit") once syncEvery
+ *  records are pending, or by a background flusher every syncMillis –
+ *  so syncEvery = 1 is fully synchronous, larger values trade a small
+ *  window of un-synced operations for much higher throughput.
+ *
+ *  Log files are named wal-<first seq>.log. rotate() starts a new file;
+ *  after a snapshot every older file can be deleted, which keeps
+ *  recovery proportional to the tail written since the last snapshot.
+ *  Replay stops at the first torn or corrupt record (bad length/CRC).
+ */
+class WriteAheadLog implements AutoCloseable {
+
+    // ── Operation codes ───────────────────────────────────────
+    static final byte OPEN     = 1;
+    static final byte DEPOSIT  = 2;
+    static final byte WITHDRAW = 3;
+    static final byte TRANSFER = 4;
+    static final byte INTEREST = 5;
+    static final byte MATURE   = 6;
+
+    // ── Account kinds (OPEN records and snapshots) ────────────
+    static final byte SAVINGS = 0;
+    static final byte CURRENT = 1;
+    static final byte FIXED   = 2;
+
+    static byte kindOf(BankAccount acc) {
+        if (acc instanceof FDAccount)      return FIXED;
+        if (acc instanceof SavingsAccount) return SAVINGS;
+        return CURRENT;
+    }
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final Path       dir;
+    private final int        syncEvery;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.nativeOrder());
+    private final CRC32      crc    = new CRC32();
+    private final ScheduledExecutorService flusher;
+
+    private FileChannel channel;
+    private Path        currentFile;
+    private long        nextSeq;
+    private int         pending;   // records appended since the last fsync
+
+    public WriteAheadLog(Path dir, long firstSeq, int syncEvery, long syncMillis) throws IOException {
+        if (syncEvery < 1) throw new IllegalArgumentException("syncEvery must be >= 1");
+        this.dir       = dir;
+        this.syncEvery = syncEvery;
+        this.nextSeq   = firstSeq;
+        Files.createDirectories(dir);
+        openFile();
+
+        if (syncMillis > 0 && syncEvery > 1) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "wal-flusher");
+                t.setDaemon(true);
+                return t;
+            });
+            flusher.scheduleAtFixedRate(() -> {
+                try { commit(); } catch (IOException e) { System.err.println("  WAL flush failed: " + e); }
+            }, syncMillis, syncMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    private void openFile() throws IOException {
+        currentFile = dir.resolve(String.format("wal-%020d.log", nextSeq));
+        channel = FileChannel.open(currentFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // ── Append ────────────────────────────────────────────────
+
+    // Balance-changing record. Returns its sequence number.
+    public synchronized long append(byte op, long epochNanos, byte[] account, byte[] other, long amount) {
+        int start = begin(op, epochNanos, account, other, amount, 0);
+        return end(start);
+    }
+
+    public synchronized long appendOpen(byte kind, long epochNanos, byte[] account, String holder,
+                                        int pin, long initialDeposit, int tenureMonths) {
+        byte[] holderBytes = holder.getBytes(StandardCharsets.UTF_8);
+        int start = begin(OPEN, epochNanos, account, null, initialDeposit,
+                1 + Short.BYTES + holderBytes.length + 2 * Integer.BYTES);
+        buffer.put(kind);
+        putString(holderBytes);
+        buffer.putInt(pin);
+        buffer.putInt(tenureMonths);
+        return end(start);
+    }
+
+    private int begin(byte op, long epochNanos, byte[] account, byte[] other, long amount, int extra) {
+        int bodyBytes = 2 * Long.BYTES + 1 + Short.BYTES + account.length
+                + Short.BYTES + (other == null ? 0 : other.length) + Long.BYTES + extra;
+        if (HEADER_BYTES + bodyBytes > buffer.capacity())
+            throw new IllegalArgumentException("WAL record too large: " + bodyBytes + " bytes");
+        if (buffer.remaining() < HEADER_BYTES + bodyBytes) writeOut();
+
+        int start = buffer.position();
+        buffer.putInt(bodyBytes).putInt(0);      // CRC is filled in by end()
+        buffer.putLong(nextSeq).putLong(epochNanos).put(op);
+        putString(account);
+        putString(other);
+        buffer.putLong(amount);
+        return start;
+    }
+
+    private long end(int start) {
+        int bodyStart = start + HEADER_BYTES;
+        ByteBuffer body = buffer.duplicate();
+        body.position(bodyStart).limit(buffer.position());
+        crc.reset();
+        crc.update(body);
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+
+        long seq = nextSeq++;
+        if (++pending >= syncEvery) {
+            try {
+                commit();
+            } catch (IOException e) {
+                throw new UncheckedIOException("WAL commit failed", e);
+            }
+        }
+        return seq;
+    }
+
+    private void putString(byte[] bytes) {
+        if (bytes == null) { buffer.putShort((short) 0); return; }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    // ── Commit / rotate / close ───────────────────────────────
+
+    // Writes everything buffered and forces it to disk (group commit)
+    public synchronized void commit() throws IOException {
+        if (pending == 0 && buffer.position() == 0) return;
+        writeOut();
+        channel.force(false);
+        pending = 0;
+    }
+
+    private void writeOut() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("WAL write failed", e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    // Starts a new log file. Returns the first sequence number it will
+    // hold; every record in the older files has a smaller number.
+    public synchronized long rotate() throws IOException {
+        commit();
+        channel.close();
+        openFile();
+        return nextSeq;
+    }
+
+    // Deletes the log files that are older than the current one
+    public synchronized int deleteOlderFiles() throws IOException {
+        int deleted = 0;
+        for (Path file : logFiles(dir)) {
+            if (!file.equals(currentFile)) {
+                Files.delete(file);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (flusher != null) flusher.shutdownNow();
+        commit();
+        channel.close();
+    }
+
+    // ── Replay ────────────────────────────────────────────────
+
+    // One decoded record. A single instance is reused for the whole replay.
+    static class Record {
+        long   seq;
+        long   epochNanos;
+        byte   op;
+        String account;
+        String other;
+        long   amount;
+        // OPEN only
+        byte   kind;
+        String holder;
+        int    pin;
+        int    tenureMonths;
+    }
+
+    // Feeds every intact record, oldest first, to handler.
+    // Returns the highest sequence number seen (0 if none).
+    static long replay(Path dir, Consumer<Record> handler) throws IOException {
+        long   lastSeq = 0;
+        Record rec     = new Record();
+        CRC32  check   = new CRC32();
+        for (Path file : logFiles(dir)) {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (ch.size() == 0) continue;
+                MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                map.order(ByteOrder.nativeOrder());
+
+                while (map.remaining() >= HEADER_BYTES) {
+                    int length = map.getInt();
+                    int stored = map.getInt();
+                    if (length <= 0 || length > map.remaining()) break;   // torn tail
+
+                    ByteBuffer body = map.slice().order(ByteOrder.nativeOrder());
+                    body.limit(length);
+                    check.reset();
+                    check.update(body.duplicate());
+                    if ((int) check.getValue() != stored) break;          // corrupt record
+
+                    rec.seq        = body.getLong();
+                    rec.epochNanos = body.getLong();
+                    rec.op         = body.get();
+                    rec.account    = getString(body);
+                    rec.other      = getString(body);
+                    rec.amount     = body.getLong();
+                    if (rec.op == OPEN) {
+                        rec.kind         = body.get();
+                        rec.holder       = getString(body);
+                        rec.pin          = body.getInt();
+                        rec.tenureMonths = body.getInt();
+                    }
+                    handler.accept(rec);
+                    lastSeq = Math.max(lastSeq, rec.seq);
+                    map.position(map.position() + length);
+                }
+            }
+        }
+        return lastSeq;
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int length = buf.getShort();
+        if (length == 0) return null;
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Log files sorted oldest → newest (the zero-padded name sorts by seq)
+    static List<Path> logFiles(Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return files;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "wal-*.log")) {
+            for (Path p : stream) files.add(p);
+        }
+        files.sort(null);
+        return files;
+    }
+}
+
+
+// ═══════════════════════════════════════════════════════════
+//  INTEREST RUN – parallel month-end posting
+// ═══════════════════════════════════════════════════════════
+/**
+ *  Splits the account array in halves (fork-join) until a slice is at
+ *  most THRESHOLD accounts, then posts interest for that slice. Each
+ *  task returns a Tally; tallies are merged on the way back up, so
+ *  there is no shared counter to contend on.
+ *
+ *  Normal mode computes + credits each account in one step, in
+ *  whatever order the worker threads reach it. Deterministic mode (for
+ *  reconciliation) sorts the accounts by number, computes all interest
+ *  in parallel, then credits sequentially in that order – so history
+ *  and log order are identical on every run with the same input.
+ */
+class InterestRun {
+
+    private static final int THRESHOLD = 4_096;
+
+    // Per-slice totals; kind index = WriteAheadLog account kind
+    static class Tally {
+        int    accounts;
+        int    credited;
+        long   total;
+        final long[] byKind = new long[3];
+
+        Tally merge(Tally other) {
+            accounts += other.accounts;
+            credited += other.credited;
+            total     = Money.add(total, other.total);
+            for (int k = 0; k < byKind.length; k++) byKind[k] = Money.add(byKind[k], other.byKind[k]);
+            return this;
+        }
+
+        void add(BankAccount acc, long interest) {
+            accounts++;
+            if (interest > 0) {
+                credited++;
+                total = Money.add(total, interest);
+                int kind = WriteAheadLog.kindOf(acc);
+                byKind[kind] = Money.add(byKind[kind], interest);
+            }
+        }
+    }
+
+    // Normal mode: compute + credit per account
+    private static class PostTask extends RecursiveTask<Tally> {
+        private static final long serialVersionUID = 1L;
+
+        private final BankAccount[] accounts;
+        private final int from, to;
+
+        PostTask(BankAccount[] accounts, int from, int to) {
+            this.accounts = accounts;
+            this.from     = from;
+            this.to       = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from <= THRESHOLD) {
+                Tally tally = new Tally();
+                for (int i = from; i < to; i++) tally.add(accounts[i], accounts[i].postInterest());
+                return tally;
+            }
+            int mid = (from + to) >>> 1;
+            PostTask left = new PostTask(accounts, from, mid);
+            left.fork();
+            Tally right = new PostTask(accounts, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    // Deterministic mode, phase 1: compute only, into interest[i]
+    private static class ComputeTask extends RecursiveTask<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final BankAccount[] accounts;
+        private final long[] interest;
+        private final int from, to;
+
+        ComputeTask(BankAccount[] accounts, long[] interest, int from, int to) {
+            this.accounts = accounts;
+            this.interest = interest;
+            this.from     = from;
+            this.to       = to;
+        }
+
+        @Override
+        protected Void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) interest[i] = accounts[i].calculateInterest();
+                return null;
+            }
+            int mid = (from + to) >>> 1;
+            ComputeTask left = new ComputeTask(accounts, interest, from, mid);
+            left.fork();
+            new ComputeTask(accounts, interest, mid, to).compute();
+            left.join();
+            return null;
+        }
+    }
+
+    static Report execute(Collection<BankAccount> accountSet, boolean deterministic, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        BankAccount[] accounts = accountSet.toArray(new BankAccount[0]);
+        Tally tally;
+
+        if (deterministic) {
+            java.util.Arrays.sort(accounts, java.util.Comparator.comparing(BankAccount::getAccountNumber));
+            long[] interest = new long[accounts.length];
+            pool.invoke(new ComputeTask(accounts, interest, 0, accounts.length));
+            tally = new Tally();
+            for (int i = 0; i < accounts.length; i++) {
+                tally.add(accounts[i], interest[i] > 0 ? accounts[i].creditInterest(interest[i]) : 0);
+            }
+        } else {
+            tally = pool.invoke(new PostTask(accounts, 0, accounts.length));
+        }
+        return new Report(tally, deterministic, System.nanoTime() - start);
+    }
+
+    // ── Summary report (replaces per-account console lines) ───
+    static class Report {
+        final Tally   tally;
+        final boolean deterministic;
+        final long    elapsedNanos;
+
+        Report(Tally tally, boolean deterministic, long elapsedNanos) {
+            this.tally         = tally;
+            this.deterministic = deterministic;
+            this.elapsedNanos  = elapsedNanos;
+        }
+
+        public long totalInterest()   { return tally.total;    }
+        public int  accountsCredited() { return tally.credited; }
+
+        public void print() {
+            System.out.println("\n  ╔══════════════════════════════════════════╗");
+            System.out.println("  ║        MONTH-END INTEREST SUMMARY        ║");
+            System.out.println("  ╠══════════════════════════════════════════╣");
+            System.out.printf ("  ║  Mode            : %-22s║%n", deterministic ? "deterministic" : "parallel");
+            System.out.printf ("  ║  Accounts        : %-22s║%n", String.format("%,d", tally.accounts));
+            System.out.printf ("  ║  Credited        : %-22s║%n", String.format("%,d", tally.credited));
+            System.out.printf ("  ║  Savings         : ₹%-21s║%n", Money.format(tally.byKind[WriteAheadLog.SAVINGS]));
+            System.out.printf ("  ║  Fixed Deposit   : ₹%-21s║%n", Money.format(tally.byKind[WriteAheadLog.FIXED]));
+            System.out.printf ("  ║  Total interest  : ₹%-21s║%n", Money.format(tally.total));
+            System.out.printf ("  ║  Elapsed         : %-22s║%n",
+                    String.format("%,d ms", elapsedNanos / 1_000_000));
+            System.out.println("  ╚══════════════════════════════════════════╝");
+        }
+    }
+}
+
+
+// ═══════════════════════════════════════════════════════════
+//  STATEMENT EXPORTER – streaming CSV / binary statements
+// ═══════════════════════════════════════════════════════════
+/**
+ *  Reads an account's rows straight from the journal and encodes them
+ *  into ONE reusable direct buffer (digits, dates and names are written
+ *  byte by byte – no String per row). The buffer goes to a FileChannel
+ *  whenever it is nearly full, so memory use is constant whatever the
+ *  history size.
+ *
+ *  CSV columns : account,timestamp,type,amount,balance,counterparty
+ *  Binary file : int magic | short len + account | then per row:
+ *                long epochNanos | byte type | long amount | long balance
+ *                | long counterparty id (AccountNumbers id, 0 = none)
+ *
+ *  Rows outside [from, to) are skipped but still count towards the
+ *  running balance. One exporter per thread – it is not thread-safe.
+ */
+class StatementExporter {
+
+    public enum Format { CSV, BINARY }
+
+    static final int BINARY_MAGIC = 0x53544D54;   // "STMT"
+
+    private static final byte[]   CSV_HEADER = "account,timestamp,type,amount,balance,counterparty\n"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] TYPE_NAMES = new byte[Transaction.Type.values().length][];
+    static {
+        for (Transaction.Type t : Transaction.Type.values())
+            TYPE_NAMES[t.ordinal()] = t.name().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final int MAX_ROW_BYTES = 256;   // flush before a row could overflow
+
+    private final ByteBuffer buffer;
+    private final ZoneOffset offset;                 // timestamps are written in this offset
+    private final byte[]     digits = new byte[20];
+    private       long[]     rows   = new long[1_024];
+    private       FileChannel channel;
+
+    public StatementExporter() {
+        this(1 << 16, java.time.OffsetDateTime.now().getOffset());
+    }
+
+    public StatementExporter(int bufferBytes, ZoneOffset offset) {
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.BIG_ENDIAN);
+        this.offset = offset;
+    }
+
+    // Whole days, local to the exporter's offset: from inclusive, to exclusive
+    public long export(BankAccount acc, Path file, Format format,
+                       LocalDate from, LocalDate to) throws IOException {
+        return export(acc, file, format,
+                from == null ? Long.MIN_VALUE : toEpochNanos(from),
+                to   == null ? Long.MAX_VALUE : toEpochNanos(to));
+    }
+
+    public long export(BankAccount acc, Path file, Format format,
+                       long fromEpochNanos, long toEpochNanos) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return export(acc, ch, format, fromEpochNanos, toEpochNanos);
+        }
+    }
+
+    // Returns the number of rows written
+    public long export(BankAccount acc, FileChannel ch, Format format,
+                       long fromEpochNanos, long toEpochNanos) throws IOException {
+        int count;
+        while ((count = acc.copyHistoryRows(rows)) < 0) rows = new long[-count * 2];
+
+        TransactionJournal journal = BankAccount.JOURNAL;
+        String number  = acc.getAccountNumber();
+        long   balance = 0;
+        long   written = 0;
+
+        channel = ch;
+        buffer.clear();
+        if (format == Format.CSV) {
+            buffer.put(CSV_HEADER);
+        } else {
+            buffer.putInt(BINARY_MAGIC);
+            buffer.putShort((short) number.length());
+            putAscii(number);
+        }
+
+        for (int i = 0; i < count; i++) {
+            long row    = rows[i];
+            byte type   = (byte) journal.type(row).ordinal();
+            long amount = journal.amount(row);
+            balance = isCredit(type) ? Money.add(balance, amount) : Money.subtract(balance, amount);
+
+            long when = journal.epochNanos(row);
+            if (when < fromEpochNanos || when >= toEpochNanos) continue;
+
+            int counterparty = journal.counterparty(row);
+            if (buffer.remaining() < MAX_ROW_BYTES) flush();
+            if (format == Format.CSV) {
+                putAscii(number);                  buffer.put((byte) ',');
+                putTimestamp(when);                buffer.put((byte) ',');
+                buffer.put(TYPE_NAMES[type]);      buffer.put((byte) ',');
+                putMoney(amount);                  buffer.put((byte) ',');
+                putMoney(balance);                 buffer.put((byte) ',');
+                if (counterparty != TransactionJournal.NO_COUNTERPARTY) putAscii(journal.nameOf(counterparty));
+                buffer.put((byte) '\n');
+            } else {
+                buffer.putLong(when);
+                buffer.put(type);
+                buffer.putLong(amount);
+                buffer.putLong(balance);
+                buffer.putLong(counterparty == TransactionJournal.NO_COUNTERPARTY ? 0
+                        : Math.max(0, AccountNumbers.parseId(journal.nameOf(counterparty))));
+            }
+            written++;
+        }
+        flush();
+        channel = null;
+        return written;
+    }
+
+    private static boolean isCredit(byte type) {
+        return type == Transaction.Type.DEPOSIT.ordinal()
+                || type == Transaction.Type.TRANSFER_IN.ordinal()
+                || type == Transaction.Type.INTEREST.ordinal();
+    }
+
+    private long toEpochNanos(LocalDate date) {
+        return date.atStartOfDay().toEpochSecond(offset) * 1_000_000_000L;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    // ── Byte-level encoders (no intermediate Strings) ─────────
+
+    private void putAscii(String s) {
+        for (int i = 0; i < s.length(); i++) buffer.put((byte) s.charAt(i));
+    }
+
+    private void putLong(long value) {
+        if (value < 0) { buffer.put((byte) '-'); value = -value; }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        while (n > 0) buffer.put(digits[--n]);
+    }
+
+    private void putPadded(long value, int width) {
+        for (long limit = 10, w = 1; w < width; w++, limit *= 10) {
+            if (value < limit) buffer.put((byte) '0');
+        }
+        putLong(value);
+    }
+
+    // paise → "-1234.56" (no grouping, machine-readable)
+    private void putMoney(long paise) {
+        if (paise < 0) buffer.put((byte) '-');
+        long abs = Math.abs(paise);
+        putLong(abs / Money.PAISE_PER_RUPEE);
+        buffer.put((byte) '.');
+        putPadded(abs % Money.PAISE_PER_RUPEE, 2);
+    }
+
+    // epoch nanos → "yyyy-MM-dd HH:mm:ss" in the exporter's offset
+    private void putTimestamp(long epochNanos) {
+        long seconds = Math.floorDiv(epochNanos, 1_000_000_000L) + offset.getTotalSeconds();
+        long days    = Math.floorDiv(seconds, 86_400L);
+        long secOfDay = Math.floorMod(seconds, 86_400L);
+
+        // Civil date from day count (H. Hinnant's days_from_civil, inverted)
+        long z   = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long doe = z - era * 146_097;
+        long yoe = (doe - doe / 1_460 + doe / 36_524 - doe / 146_096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp  = (5 * doy + 2) / 153;
+        long day   = doy - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year  = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+        putPadded(year, 4);               buffer.put((byte) '-');
+        putPadded(month, 2);              buffer.put((byte) '-');
+        putPadded(day, 2);                buffer.put((byte) ' ');
+        putPadded(secOfDay / 3_600, 2);   buffer.put((byte) ':');
+        putPadded(secOfDay / 60 % 60, 2); buffer.put((byte) ':');
+        putPadded(secOfDay % 60, 2);
+    }
+}
+
+
+// ═══════════════════════════════════════════════════════════
+//  BANK AGGREGATES – running totals for dashboards
+// ═══════════════════════════════════════════════════════════
+/**
+ *  Each balance change reports (old, new) here and every total is
+ *  adjusted by the delta. Counters are LongAdders: updates from many
+ *  threads land in different cells instead of fighting over one
+ *  value, and a read just sums the cells – independent of the
+ *  number of accounts.
+ *
+ *  Reads are not one atomic picture of ALL totals, but each total is
+ *  exact once in-flight operations finish.
+ */
+class BankAggregates {
+
+    private final LongAdder totalBalance     = new LongAdder();
+    private final LongAdder overdrawnCurrent = new LongAdder();
+    private final Map<String, LongAdder>    balanceByType = new ConcurrentHashMap<>();
+    private final Map<YearMonth, LongAdder> fdByMaturity  = new ConcurrentHashMap<>();
+
+    void onBalanceChange(BankAccount acc, long previous, long updated) {
+        long delta = updated - previous;
+        if (delta != 0) {
+            totalBalance.add(delta);
+            balanceByType.computeIfAbsent(acc.getAccountType(), k -> new LongAdder()).add(delta);
+            if (acc instanceof FDAccount) {
+                YearMonth bucket = YearMonth.from(((FDAccount) acc).getMaturityDate());
+                fdByMaturity.computeIfAbsent(bucket, k -> new LongAdder()).add(delta);
+            }
+        }
+        if (acc instanceof CurrentAccount) {
+            if (previous >= 0 && updated < 0)      overdrawnCurrent.increment();
+            else if (previous < 0 && updated >= 0) overdrawnCurrent.decrement();
+        }
+    }
+
+    // ── O(1) queries ─────────────────────────────────────────
+    public long totalBalance()             { return totalBalance.sum();     }
+    public long overdrawnCurrentAccounts() { return overdrawnCurrent.sum(); }
+
+    public long balanceByType(String accountType) {
+        LongAdder sum = balanceByType.get(accountType);
+        return sum == null ? 0 : sum.sum();
+    }
+
+    public long fdBalanceMaturingIn(YearMonth month) {
+        LongAdder sum = fdByMaturity.get(month);
+        return sum == null ? 0 : sum.sum();
+    }
+
+    public void print() {
+        System.out.println("\n  ┌──────────── Dashboard ─────────────┐");
+        System.out.printf ("  │ Total balance    : ₹%-16s│%n", Money.format(totalBalance()));
+        for (String type : new String[]{"Savings", "Current", "Fixed Deposit"}) {
+            System.out.printf("  │ %-16s : ₹%-16s│%n", type, Money.format(balanceByType(type)));
+        }
+        System.out.printf ("  │ Overdrawn current: %-17d│%n", overdrawnCurrentAccounts());
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i < 3; i++, month = month.plusMonths(1)) {
+            System.out.printf("  │ FDs due %-8s : ₹%-16s│%n", month, Money.format(fdBalanceMaturingIn(month)));
+        }
+        System.out.println("  └────────────────────────────────────┘");
     }
 }
 
@@ -339,50 +1727,357 @@ class FDAccount extends BankAccount {
 class Bank {
 
     private final String name;
-    private final Map<String, BankAccount> accounts = new HashMap<>();
+    private final boolean concurrent;
+    private final Map<String, BankAccount> accounts;
+
+    // ── Secondary indexes (holder, type and maturity never change) ──
+    // holder (lower-case) → accounts; sorted, so a prefix is a sub-map
+    private final NavigableMap<String, Set<BankAccount>>  byHolder     = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<BankAccount>>           byType       = new ConcurrentHashMap<>();
+    private final NavigableMap<YearMonth, Set<FDAccount>> fdByMaturity = new ConcurrentSkipListMap<>();
+
+    // ── Running totals, updated on every balance change ──────
+    private final BankAggregates aggregates = new BankAggregates();
+
+    // ── Durability (only for banks created with Bank.open) ───
+    private WriteAheadLog wal;
+    private Path          dataDir;
+
+    private static final String SNAPSHOT_FILE  = "snapshot.dat";
+    private static final int    SNAPSHOT_MAGIC = 0x42414E4B;   // "BANK"
 
     public Bank(String name) {
-        this.name = name;
-        System.out.println("╔══════════════════════════════════════════╗");
-        System.out.printf ("║  Welcome to %-28s ║%n", name + " Bank");
-        System.out.println("╚══════════════════════════════════════════╝");
+        this(name, false);
+    }
+
+    // concurrent = true → thread-safe index, silent ledger mode (no banners / receipts)
+    public Bank(String name, boolean concurrent) {
+        this.name       = name;
+        this.concurrent = concurrent;
+        this.accounts   = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+        if (!concurrent) {
+            System.out.println("╔══════════════════════════════════════════╗");
+            System.out.printf ("║  Welcome to %-28s ║%n", name + " Bank");
+            System.out.println("╚══════════════════════════════════════════╝");
+        }
     }
 
     // ── Account management ────────────────────────────────────
 
-    public SavingsAccount openSavings(String holder, int pin, double deposit) {
+    public SavingsAccount openSavings(String holder, int pin, long deposit) {
         SavingsAccount acc = new SavingsAccount(holder, pin, deposit);
-        accounts.put(acc.getAccountNumber(), acc);
-        System.out.printf("  ✔ Savings account opened: %s for %s%n",
+        register(acc, WriteAheadLog.SAVINGS, deposit, 0);
+        if (!concurrent) System.out.printf("  ✔ Savings account opened: %s for %s%n",
                 acc.getAccountNumber(), holder);
         return acc;
     }
 
-    public CurrentAccount openCurrent(String holder, int pin, double deposit) {
+    public CurrentAccount openCurrent(String holder, int pin, long deposit) {
         CurrentAccount acc = new CurrentAccount(holder, pin, deposit);
-        accounts.put(acc.getAccountNumber(), acc);
-        System.out.printf("  ✔ Current account opened: %s for %s%n",
+        register(acc, WriteAheadLog.CURRENT, deposit, 0);
+        if (!concurrent) System.out.printf("  ✔ Current account opened: %s for %s%n",
                 acc.getAccountNumber(), holder);
         return acc;
     }
 
-    public FDAccount openFD(String holder, int pin, double deposit, int months) {
+    public FDAccount openFD(String holder, int pin, long deposit, int months) {
         FDAccount acc = new FDAccount(holder, pin, deposit, months);
-        accounts.put(acc.getAccountNumber(), acc);
-        System.out.printf("  ✔ FD account opened: %s for %s (%d months)%n",
+        register(acc, WriteAheadLog.FIXED, deposit, months);
+        if (!concurrent) System.out.printf("  ✔ FD account opened: %s for %s (%d months)%n",
                 acc.getAccountNumber(), holder, months);
         return acc;
     }
 
+    // Holding the account's monitor keeps any other operation on it from
+    // being logged before its OPEN record.
+    private void register(BankAccount acc, byte kind, long deposit, int months) {
+        synchronized (acc) {
+            if (accounts.putIfAbsent(acc.getAccountNumber(), acc) != null)
+                throw new IllegalStateException("Duplicate account number " + acc.getAccountNumber());
+            index(acc);
+            if (wal != null) {
+                wal.appendOpen(kind, TransactionJournal.nowNanos(),
+                        acc.getAccountNumber().getBytes(StandardCharsets.UTF_8),
+                        acc.getHolderName(), acc.pinForSnapshot(), deposit, months);
+                acc.attachLog(wal);
+            }
+        }
+    }
+
     public BankAccount findAccount(String accountNumber) {
         return accounts.get(accountNumber);
     }
 
+    // ── Secondary index queries ───────────────────────────────
+
+    private void index(BankAccount acc) {
+        acc.attachAggregates(aggregates);
+        byHolder.computeIfAbsent(holderKey(acc.getHolderName()), k -> ConcurrentHashMap.newKeySet()).add(acc);
+        byType.computeIfAbsent(acc.getAccountType(), k -> ConcurrentHashMap.newKeySet()).add(acc);
+        if (acc instanceof FDAccount) {
+            FDAccount fdAcc = (FDAccount) acc;
+            fdByMaturity.computeIfAbsent(YearMonth.from(fdAcc.getMaturityDate()),
+                    k -> ConcurrentHashMap.newKeySet()).add(fdAcc);
+        }
+    }
+
+    private static String holderKey(String holder) {
+        return holder.trim().toLowerCase();
+    }
+
+    // All accounts for holder X (case-insensitive exact match) – O(log n)
+    public List<BankAccount> findByHolder(String holder) {
+        Set<BankAccount> hits = byHolder.get(holderKey(holder));
+        return hits == null ? new ArrayList<>() : new ArrayList<>(hits);
+    }
+
+    // Holders whose name starts with prefix – O(log n + results)
+    public List<BankAccount> findByHolderPrefix(String prefix) {
+        String from = holderKey(prefix);
+        List<BankAccount> result = new ArrayList<>();
+        for (Set<BankAccount> hits : byHolder.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+            result.addAll(hits);
+        }
+        return result;
+    }
+
+    public List<BankAccount> findByType(String accountType) {
+        Set<BankAccount> hits = byType.get(accountType);
+        return hits == null ? new ArrayList<>() : new ArrayList<>(hits);
+    }
+
+    public List<FDAccount> fdsMaturingIn(YearMonth month) {
+        Set<FDAccount> hits = fdByMaturity.get(month);
+        return hits == null ? new ArrayList<>() : new ArrayList<>(hits);
+    }
+
+    public List<FDAccount> fdsMaturingThisMonth() {
+        return fdsMaturingIn(YearMonth.now());
+    }
+
+    // Dashboard totals – O(1) reads, no scan over accounts
+    public BankAggregates aggregates() { return aggregates; }
+
+    // ── Durability: open / snapshot / close ───────────────────
+
+    // Recovers a bank from dir (latest snapshot + log tail) and keeps
+    // logging to it. syncEvery / syncMillis control group commit.
+    public static Bank open(String name, Path dir, int syncEvery, long syncMillis) throws IOException {
+        return open(name, false, dir, syncEvery, syncMillis);
+    }
+
+    public static Bank open(String name, boolean concurrent, Path dir,
+                            int syncEvery, long syncMillis) throws IOException {
+        Bank bank  = new Bank(name, concurrent);
+        long start = System.nanoTime();
+
+        long   nextSeq  = bank.loadSnapshot(dir.resolve(SNAPSHOT_FILE));
+        long[] replayed = {0};
+        long   lastSeq  = WriteAheadLog.replay(dir, rec -> {
+            bank.apply(rec);
+            replayed[0]++;
+        });
+        nextSeq = Math.max(nextSeq, lastSeq + 1);
+
+        // New accounts must not reuse a recovered id
+        long maxId = 0;
+        for (String number : bank.accounts.keySet()) maxId = Math.max(maxId, AccountNumbers.parseId(number));
+        BankAccount.getIdAllocator().reserveThrough(maxId);
+
+        bank.dataDir = dir;
+        bank.wal     = new WriteAheadLog(dir, nextSeq, syncEvery, syncMillis);
+        for (BankAccount acc : bank.accounts.values()) acc.attachLog(bank.wal);
+
+        if (!concurrent && !bank.accounts.isEmpty()) {
+            System.out.printf("  [Recovery] %d accounts, %,d log records replayed in %,d ms%n",
+                    bank.accounts.size(), replayed[0], (System.nanoTime() - start) / 1_000_000);
+        }
+        return bank;
+    }
+
+    // Applies one replayed log record
+    private void apply(WriteAheadLog.Record rec) {
+        BankAccount acc = accounts.get(rec.account);
+        switch (rec.op) {
+            case WriteAheadLog.OPEN:
+                if (acc != null) return;   // already in the snapshot
+                LocalDate opened = java.time.Instant.ofEpochSecond(rec.epochNanos / 1_000_000_000L)
+                        .atZone(java.time.ZoneId.systemDefault()).toLocalDate();
+                acc = restoreAccount(rec.kind, rec.account, rec.holder, rec.pin, rec.tenureMonths, 0,
+                        opened.plusMonths(rec.tenureMonths));
+                accounts.put(rec.account, acc);
+                index(acc);
+                acc.replay(Transaction.Type.DEPOSIT, rec.amount, null, rec.seq, rec.epochNanos);
+                break;
+            case WriteAheadLog.DEPOSIT:
+                acc.replay(Transaction.Type.DEPOSIT, rec.amount, null, rec.seq, rec.epochNanos);
+                break;
+            case WriteAheadLog.WITHDRAW:
+                acc.replay(Transaction.Type.WITHDRAWAL, rec.amount, null, rec.seq, rec.epochNanos);
+                break;
+            case WriteAheadLog.INTEREST:
+                acc.replay(Transaction.Type.INTEREST, rec.amount, null, rec.seq, rec.epochNanos);
+                break;
+            case WriteAheadLog.TRANSFER:
+                BankAccount to = accounts.get(rec.other);
+                acc.replay(Transaction.Type.TRANSFER_OUT, rec.amount, to, rec.seq, rec.epochNanos);
+                to.replay(Transaction.Type.TRANSFER_IN, rec.amount, acc, rec.seq, rec.epochNanos);
+                break;
+            case WriteAheadLog.MATURE:
+                if (acc instanceof FDAccount) ((FDAccount) acc).markMatured();
+                break;
+            default:
+                throw new IllegalStateException("Unknown WAL op " + rec.op + " at seq " + rec.seq);
+        }
+    }
+
+    private static BankAccount restoreAccount(byte kind, String number, String holder, int pin,
+                                              int tenure, int monthsCompleted, LocalDate maturity) {
+        switch (kind) {
+            case WriteAheadLog.SAVINGS: return new SavingsAccount(number, holder, pin);
+            case WriteAheadLog.CURRENT: return new CurrentAccount(number, holder, pin);
+            case WriteAheadLog.FIXED:
+                return new FDAccount(number, holder, pin, tenure, monthsCompleted, maturity);
+            default: throw new IllegalStateException("Unknown account kind " + kind);
+        }
+    }
+
+    // Writes every account to snapshot.dat, then drops the log files the
+    // snapshot makes redundant. Safe while other threads keep operating:
+    // each account stores the last log seq it reflects, and replay skips
+    // anything older.
+    public void snapshot() throws IOException {
+        if (wal == null) throw new IllegalStateException("Bank " + name + " is not durable");
+        long nextSeq = wal.rotate();
+
+        Path target = dataDir.resolve(SNAPSHOT_FILE);
+        Path temp   = dataDir.resolve(SNAPSHOT_FILE + ".tmp");
+        List<BankAccount> snapshot = new ArrayList<>(accounts.values());
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(nextSeq);
+            out.writeInt(snapshot.size());
+            for (BankAccount acc : snapshot) {
+                byte kind = WriteAheadLog.kindOf(acc);
+                out.writeByte(kind);
+                if (kind == WriteAheadLog.FIXED) {
+                    FDAccount fdAcc = (FDAccount) acc;
+                    out.writeInt(fdAcc.getTenureMonths());
+                    out.writeInt(fdAcc.getMonthsCompleted());
+                    out.writeLong(fdAcc.getMaturityDate().toEpochDay());
+                } else {
+                    out.writeInt(0);
+                    out.writeInt(0);
+                    out.writeLong(0);
+                }
+                acc.writeSnapshot(out);
+            }
+            out.writeInt(SNAPSHOT_MAGIC);   // trailer: detects a truncated file
+        }
+        try (FileChannel ch = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        wal.deleteOlderFiles();
+    }
+
+    // Returns the first log seq NOT covered by the snapshot (1 if none)
+    private long loadSnapshot(Path file) throws IOException {
+        if (!Files.exists(file)) return 1;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            int magic = in.readInt();
+            if (magic != SNAPSHOT_MAGIC)
+                throw new IOException("Not a bank snapshot: " + file);
+            long nextSeq = in.readLong();
+            int  count   = in.readInt();
+            for (int i = 0; i < count; i++) {
+                byte   kind      = in.readByte();
+                int    tenure    = in.readInt();
+                int    completed = in.readInt();
+                LocalDate maturity = LocalDate.ofEpochDay(in.readLong());
+                String number    = in.readUTF();
+                String holder    = in.readUTF();
+                int    pin       = in.readInt();
+                long   balance   = in.readLong();
+                long   walSeq    = in.readLong();
+                BankAccount acc = restoreAccount(kind, number, holder, pin, tenure, completed, maturity);
+                acc.restoreSnapshot(balance, walSeq);
+                accounts.put(number, acc);
+                index(acc);
+            }
+            if (in.readInt() != magic) throw new IOException("Truncated snapshot: " + file);
+            return nextSeq;
+        }
+    }
+
+    // Flushes the log; call before exit
+    public void close() throws IOException {
+        if (wal != null) wal.close();
+    }
+
+    // ── Concurrent ledger ─────────────────────────────────────
+
+    // Silent, thread-safe transfer between two different accounts by
+    // number. Linearizable: both balances change together under both locks.
+    public boolean transfer(String fromNumber, String toNumber, long amount, int pin) {
+        BankAccount from = accounts.get(fromNumber);
+        BankAccount to   = accounts.get(toNumber);
+        if (from == null || to == null) return false;
+        return from.tryTransfer(to, amount, pin);
+    }
+
+    // ── Batched transfers ─────────────────────────────────────
+
+    // Applies the commands in list order. results[i] is the TransferStatus
+    // code for commands.get(i). Account lookups are done once per
+    // distinct account per batch; the PIN check is a plain field compare
+    // per command, since each command carries its own PIN.
+    public byte[] submitBatch(List<TransferCommand> commands) {
+        byte[] results = new byte[commands.size()];
+        Map<String, BankAccount> resolved = new HashMap<>();
+
+        for (int i = 0; i < results.length; i++) {
+            TransferCommand cmd = commands.get(i);
+            BankAccount src = resolve(cmd.fromAccount, resolved);
+            BankAccount dst = resolve(cmd.toAccount, resolved);
+
+            if (src == null || dst == null)      results[i] = TransferStatus.UNKNOWN_ACCOUNT;
+            else if (!src.pinMatches(cmd.pin))   results[i] = TransferStatus.INVALID_PIN;
+            else if (cmd.amount <= 0)            results[i] = TransferStatus.INVALID_AMOUNT;
+            else if (src == dst)                 results[i] = TransferStatus.SAME_ACCOUNT;
+            else                                 results[i] = src.transferValidated(dst, cmd.amount);
+        }
+        return results;
+    }
+
+    private BankAccount resolve(String number, Map<String, BankAccount> cache) {
+        BankAccount acc = cache.get(number);
+        if (acc == null && number != null) {
+            acc = accounts.get(number);
+            if (acc != null) cache.put(number, acc);
+        }
+        return acc;
+    }
+
+    // Sum of all balances by full scan – the invariant the stress test
+    // checks; dashboards use aggregates().totalBalance() instead
+    public long totalBalance() {
+        long total = 0;
+        for (BankAccount acc : accounts.values()) total = Money.add(total, acc.getBalance());
+        return total;
+    }
+
+    public int size() { return accounts.size(); }
+
+    Collection<BankAccount> allAccounts() { return accounts.values(); }
+
     // Apply monthly interest to ALL interest-bearing accounts
     public void processMonthlyInterest() {
         System.out.println("\n  --- Monthly Interest Processing ---");
         for (BankAccount acc : accounts.values()) {
-            double interest = acc.calculateInterest();
+            long interest = acc.calculateInterest();
             if (interest > 0) {
                 System.out.printf("  %s (%s): ", acc.getAccountNumber(), acc.getHolderName());
                 acc.applyInterest();
@@ -390,16 +2085,23 @@ class Bank {
         }
     }
 
+    // Month-end run for large account sets: fork-join, one interest
+    // calculation per account, one summary instead of per-account output
+    public InterestRun.Report runMonthEndInterest(boolean deterministic) {
+        return InterestRun.execute(accounts.values(), deterministic, ForkJoinPool.commonPool());
+    }
+
     public void listAllAccounts() {
         System.out.printf("%n  --- All Accounts at %s Bank ---%n", name);
         System.out.printf("  %-12s %-20s %-15s %s%n",
                 "Account No", "Holder", "Type", "Balance");
         System.out.println("  " + "─".repeat(62));
         for (BankAccount acc : accounts.values()) {
-            System.out.printf("  %-12s %-20s %-15s ₹%,.2f%n",
+            System.out.printf("  %-12s %-20s %-15s ₹%s%n",
                     acc.getAccountNumber(), acc.getHolderName(),
-                    acc.getAccountType(), acc.getBalance());
+                    acc.getAccountType(), Money.format(acc.getBalance()));
         }
+        aggregates.print();
     }
 }
 
@@ -410,7 +2112,9 @@ class Bank {
 public class BankingSystem {
 
     static Scanner sc   = new Scanner(System.in);
-    static Bank    bank = new Bank("Java National");
+    static Bank    bank;                                   // recovered in main()
+
+    static final Path DATA_DIR = Paths.get("bank-data");   // snapshot + write-ahead log
 
     // Seed some accounts for demonstration
     static SavingsAccount alice;
@@ -419,9 +2123,9 @@ public class BankingSystem {
 
     static void seedAccounts() {
         System.out.println("\n  [System] Creating demo accounts...");
-        alice   = bank.openSavings("Alice Johnson",  1111, 10_000);
-        company = bank.openCurrent("TechCorp Ltd",   2222, 50_000);
-        fd      = bank.openFD("Bob Sharma",          3333, 25_000, 6);
+        alice   = bank.openSavings("Alice Johnson",  1111, Money.ofRupees(10_000));
+        company = bank.openCurrent("TechCorp Ltd",   2222, Money.ofRupees(50_000));
+        fd      = bank.openFD("Bob Sharma",          3333, Money.ofRupees(25_000), 6);
     }
 
     // ── UI helpers ────────────────────────────────────────────
@@ -460,11 +2164,20 @@ public class BankingSystem {
         }
     }
 
+    // Amounts are typed in rupees (e.g. 250.75) and stored as paise
+    static long readAmount(String prompt) {
+        return Money.fromDouble(readDouble(prompt));
+    }
+
     static BankAccount selectAccount() {
         System.out.print("  Enter account number: ");
         String num = sc.nextLine().trim().toUpperCase();
         BankAccount acc = bank.findAccount(num);
-        if (acc == null) System.out.println("  ✘ Account not found: " + num);
+        if (acc == null) {
+            System.out.println(AccountNumbers.isValid(num)
+                    ? "  ✘ Account not found: " + num
+                    : "  ✘ Not a valid account number (check digit): " + num);
+        }
         return acc;
     }
 
@@ -473,7 +2186,7 @@ public class BankingSystem {
     static void handleDeposit() {
         BankAccount acc = selectAccount();
         if (acc == null) return;
-        double amount = readDouble("  Amount to deposit: ₹");
+        long   amount = readAmount("  Amount to deposit: ₹");
         acc.deposit(amount);
     }
 
@@ -481,7 +2194,7 @@ public class BankingSystem {
         BankAccount acc = selectAccount();
         if (acc == null) return;
         int    pin    = readInt("  Enter PIN: ");
-        double amount = readDouble("  Amount to withdraw: ₹");
+        long   amount = readAmount("  Amount to withdraw: ₹");
         acc.withdraw(amount, pin);
     }
 
@@ -492,8 +2205,12 @@ public class BankingSystem {
         System.out.println("  TO:");
         BankAccount to   = selectAccount();
         if (to == null) return;
+        if (to == from) {
+            System.out.println("  ✘ Cannot transfer to the same account.");
+            return;
+        }
         int    pin    = readInt("  Enter FROM account PIN: ");
-        double amount = readDouble("  Transfer amount: ₹");
+        long   amount = readAmount("  Transfer amount: ₹");
         from.transferTo(to, amount, pin);
     }
 
@@ -503,7 +2220,7 @@ public class BankingSystem {
         System.out.print("  Holder name: ");
         String name = sc.nextLine().trim();
         int    pin  = readInt("  Set 4-digit PIN: ");
-        double dep  = readDouble("  Initial deposit: ₹");
+        long   dep  = readAmount("  Initial deposit: ₹");
 
         switch (type) {
             case 1: bank.openSavings(name, pin, dep);     break;
@@ -521,15 +2238,24 @@ public class BankingSystem {
     // ═══════════════════════════════════════════════════════
     public static void main(String[] args) {
 
-        seedAccounts();
+        try {
+            bank = Bank.open("Java National", DATA_DIR, 64, 5);   // fsync every 64 ops or 5 ms
+        } catch (IOException e) {
+            System.out.println("  ✘ Could not recover bank data: " + e.getMessage());
+            return;
+        }
 
-        // Quick demo transactions so statement has entries
-        System.out.println("\n  [Demo] Running some transactions...");
-        alice.deposit(5_000);
-        alice.withdraw(2_000, 1111);
-        company.deposit(20_000);
-        alice.transferTo(company, 1_500, 1111);
-        bank.processMonthlyInterest();
+        if (bank.size() == 0) {   // first run – nothing recovered
+            seedAccounts();
+
+            // Quick demo transactions so statement has entries
+            System.out.println("\n  [Demo] Running some transactions...");
+            alice.deposit(Money.ofRupees(5_000));
+            alice.withdraw(Money.ofRupees(2_000), 1111);
+            company.deposit(Money.ofRupees(20_000));
+            alice.transferTo(company, Money.ofRupees(1_500), 1111);
+            bank.processMonthlyInterest();
+        }
 
         // ── Interactive menu ──────────────────────────────────
         boolean running = true;
@@ -557,6 +2283,12 @@ public class BankingSystem {
                 case 7: handleNewAccount(); break;
                 case 8:
                     running = false;
+                    try {
+                        bank.snapshot();   // next start replays nothing
+                        bank.close();
+                    } catch (IOException e) {
+                        System.out.println("  ✘ Could not save bank data: " + e.getMessage());
+                    }
                     System.out.println("\n  Thank you for banking with Java National. Goodbye!");
                     break;
                 default:
@@ -0,0 +1,337 @@
+// BankingSystemBench.java
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  Throughput benchmarks for BankingSystem: batches, money arithmetic,
+ *  the write-ahead log, month-end interest, indexes, statement export
+ *  and dashboard aggregates.
+ *
+ *  Run (compile it together with BankingSystem.java):
+ *    javac BankingSystem.java BankingSystemBench.java
+ *    java BankingSystemBench
+ */
+@SuppressWarnings("auxiliaryclass")   // Bank, Money etc. are top-level classes in BankingSystem.java
+public class BankingSystemBench {
+
+    public static void main(String[] args) {
+        runBenchmarks();
+    }
+
+    // Simple wall-clock micro-benchmarks: a few warm-up rounds so the
+    // JIT compiles the hot paths, then one measured round.
+    static void runBenchmarks() {
+        benchIdAllocation();
+        benchBatchTransfers();
+        benchMoneyRepresentations();
+        benchDurableOperations();
+        benchMonthEndInterest();
+        benchSecondaryIndexes();
+        benchStatementExport();
+        benchAggregates();
+    }
+
+    // Dashboard read: running LongAdder totals vs a full scan, while
+    // transfers keep updating them from other threads
+    static void benchAggregates() {
+        final int ACCOUNTS = 200_000;
+        final int READS    = 1_000;
+        Bank ledger = new Bank("Bench", true);
+        String[] numbers = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            BankAccount acc = (i % 3 == 0)
+                    ? ledger.openCurrent("Holder " + i, 1234, Money.ofRupees(1_000))
+                    : ledger.openSavings("Holder " + i, 1234, Money.ofRupees(10_000));
+            numbers[i] = acc.getAccountNumber();
+        }
+
+        ExecutorService writers = Executors.newFixedThreadPool(2);
+        AtomicBoolean running = new AtomicBoolean(true);
+        for (int t = 0; t < 2; t++) {
+            writers.submit(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (running.get()) {
+                    ledger.transfer(numbers[rnd.nextInt(ACCOUNTS)], numbers[rnd.nextInt(ACCOUNTS)],
+                            rnd.nextLong(1, Money.ofRupees(2_000)), 1234);
+                }
+            });
+        }
+
+        long sink = 0;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < READS; i++) {
+                sink += ledger.aggregates().balanceByType("Savings")
+                      + ledger.aggregates().overdrawnCurrentAccounts();
+            }
+            long aggregateNs = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < READS / 100; i++) {
+                for (BankAccount acc : ledger.allAccounts()) {
+                    if (acc instanceof SavingsAccount) sink += acc.getBalance();
+                    else if (acc.getBalance() < 0)     sink++;
+                }
+            }
+            long scanNs = (System.nanoTime() - start) * 100;
+
+            if (round == 2) {
+                System.out.printf("  [Bench] dashboard read, %,d accounts under load: aggregates %,.0f ns | full scan %,.0f ns%n",
+                        ACCOUNTS, (double) aggregateNs / READS, (double) scanNs / READS);
+            }
+        }
+        running.set(false);
+        writers.shutdown();
+        try {
+            writers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println(ledger.aggregates().totalBalance() == ledger.totalBalance()
+                ? "  ✔ Aggregates match a full scan after the run."
+                : "  ✘ Aggregates drifted from the scan!");
+        if (sink == 42) System.out.println();
+    }
+
+    static void benchStatementExport() {
+        final int ROWS = 1_000_000;
+        Bank ledger = new Bank("Bench", true);
+        BankAccount acc   = ledger.openSavings("Export Holder", 1234, Money.ofRupees(1_000));
+        BankAccount other = ledger.openCurrent("Counterparty", 1234, Money.ofRupees(1_000));
+        for (int i = 0; i < ROWS; i++) {
+            if (i % 4 == 0) ledger.transfer(acc.getAccountNumber(), other.getAccountNumber(), 150, 1234);
+            else            acc.depositQuietly(100 + i % 1_000);
+        }
+        StatementExporter exporter = new StatementExporter();
+        try {
+            Path dir = Files.createTempDirectory("bank-statements");
+            for (StatementExporter.Format format : StatementExporter.Format.values()) {
+                Path file = dir.resolve("statement." + format.name().toLowerCase());
+                long rows = 0, elapsed = 0;
+                for (int round = 0; round < 3; round++) {
+                    long start = System.nanoTime();
+                    rows    = exporter.export(acc, file, format, (LocalDate) null, null);
+                    elapsed = System.nanoTime() - start;
+                }
+                System.out.printf("  [Bench] export %-6s: %,d rows in %,d ms → %,.0f rows/sec, %,.1f MB/s%n",
+                        format, rows, elapsed / 1_000_000, rows * 1e9 / elapsed,
+                        Files.size(file) / 1e6 / (elapsed / 1e9));
+            }
+            deleteRecursively(dir);
+        } catch (IOException e) {
+            System.out.println("  ✘ Export benchmark failed: " + e.getMessage());
+        }
+    }
+
+    // Cost of keeping the indexes up to date, and lookups vs a full scan
+    static void benchSecondaryIndexes() {
+        final int ACCOUNTS = 200_000;
+        final int LOOKUPS  = 1_000;
+
+        Bank ledger = new Bank("Bench", true);
+        long start = System.nanoTime();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String holder = "Holder " + (i % 50_000);   // ~4 accounts per holder
+            if (i % 3 == 0) ledger.openFD(holder, 1234, Money.ofRupees(5_000), 1 + i % 36);
+            else            ledger.openSavings(holder, 1234, Money.ofRupees(1_000));
+        }
+        long openNs = System.nanoTime() - start;
+
+        long sink = 0;
+        for (int round = 0; round < 3; round++) {
+            start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) sink += ledger.findByHolder("holder " + (i * 37 % 50_000)).size();
+            long indexedNs = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS / 10; i++) {
+                String wanted = "Holder " + (i * 37 % 50_000);
+                for (BankAccount acc : ledger.allAccounts())
+                    if (acc.getHolderName().equalsIgnoreCase(wanted)) sink++;
+            }
+            long scanNs = (System.nanoTime() - start) * 10;
+
+            if (round == 2) {
+                System.out.printf("  [Bench] open+index %,d accounts: %,d ms (%,.0f ns/account)%n",
+                        ACCOUNTS, openNs / 1_000_000, (double) openNs / ACCOUNTS);
+                System.out.printf("  [Bench] holder lookup: index %,.0f ns | full scan %,.0f ns%n",
+                        (double) indexedNs / LOOKUPS, (double) scanNs / LOOKUPS);
+                System.out.printf("  [Bench] FDs maturing next month: %,d%n",
+                        ledger.fdsMaturingIn(YearMonth.now().plusMonths(1)).size());
+            }
+        }
+        if (sink == 42) System.out.println();
+    }
+
+    static void benchMonthEndInterest() {
+        final int ACCOUNTS = 200_000;
+        Bank ledger = new Bank("Bench", true);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            if (i % 2 == 0) ledger.openSavings("Holder " + i, 1234, Money.ofRupees(10_000 + i));
+            else            ledger.openFD("Holder " + i, 1234, Money.ofRupees(50_000 + i), 12);
+        }
+        for (int round = 0; round < 3; round++) ledger.runMonthEndInterest(false);   // warm-up
+
+        InterestRun.Report parallel      = ledger.runMonthEndInterest(false);
+        InterestRun.Report deterministic = ledger.runMonthEndInterest(true);
+        System.out.printf("  [Bench] month-end interest, %,d accounts: parallel %,d ms | deterministic %,d ms%n",
+                ledger.size(), parallel.elapsedNanos / 1_000_000, deterministic.elapsedNanos / 1_000_000);
+        deterministic.print();
+    }
+
+    // Deposits through the write-ahead log at different fsync batch sizes
+    static void benchDurableOperations() {
+        final int OPS = 200_000;
+        for (int syncEvery : new int[]{1, 64, 1_024}) {
+            int ops = (syncEvery == 1) ? OPS / 100 : OPS;   // fsync per op is slow
+            try {
+                Path dir = Files.createTempDirectory("bank-wal-bench");
+                Bank durable = Bank.open("Bench", true, dir, syncEvery, 10);
+                BankAccount acc = durable.openCurrent("Bench Holder", 1234, Money.ofRupees(1_000));
+
+                long start = System.nanoTime();
+                for (int i = 0; i < ops; i++) acc.depositQuietly(100);
+                durable.close();
+                long elapsed = System.nanoTime() - start;
+
+                long recoverStart = System.nanoTime();
+                Bank recovered = Bank.open("Bench", true, dir, syncEvery, 10);
+                long recoverMs = (System.nanoTime() - recoverStart) / 1_000_000;
+                boolean intact = recovered.findAccount(acc.getAccountNumber()).getBalance() == acc.getBalance();
+                recovered.close();
+
+                System.out.printf("  [Bench] WAL fsync every %,5d: %,9.0f durable ops/ms | recovery %,d ms %s%n",
+                        syncEvery, ops * 1e6 / elapsed, recoverMs, intact ? "✔" : "✘ balance mismatch");
+                deleteRecursively(dir);
+            } catch (IOException e) {
+                System.out.println("  ✘ WAL benchmark failed: " + e.getMessage());
+            }
+        }
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files) Files.delete(f);
+        }
+        Files.delete(dir);
+    }
+
+    // deposit + withdraw + monthly-interest per iteration, three ways.
+    // Interest is accumulated separately so the balance does not compound.
+    static void benchMoneyRepresentations() {
+        final int OPS = 2_000_000;
+        long sink = 0;   // keeps the JIT from discarding results
+
+        for (int round = 0; round < 4; round++) {
+            boolean measured = (round == 3);
+
+            long start = System.nanoTime();
+            double d = 10_000.0, dInterest = 0;
+            for (int i = 0; i < OPS; i++) {
+                d += 12.34;
+                d -= 5.67;
+                dInterest += d * 4.0 / 100.0 / 12;
+            }
+            long doubleNs = System.nanoTime() - start;
+            sink += (long) (d + dInterest);
+
+            start = System.nanoTime();
+            long paise = Money.ofRupees(10_000), pInterest = 0;
+            for (int i = 0; i < OPS; i++) {
+                paise     = Money.add(paise, 1_234);
+                paise     = Money.subtract(paise, 567);
+                pInterest = Money.add(pInterest, Money.monthlyInterest(paise, 400));
+            }
+            long longNs = System.nanoTime() - start;
+            sink += paise + pInterest;
+
+            start = System.nanoTime();
+            java.math.BigDecimal bd     = new java.math.BigDecimal("10000.00");
+            java.math.BigDecimal bInterest = java.math.BigDecimal.ZERO;
+            java.math.BigDecimal dep    = new java.math.BigDecimal("12.34");
+            java.math.BigDecimal wd     = new java.math.BigDecimal("5.67");
+            java.math.BigDecimal rate   = new java.math.BigDecimal("0.04");
+            java.math.BigDecimal months = java.math.BigDecimal.valueOf(12);
+            for (int i = 0; i < OPS; i++) {
+                bd = bd.add(dep).subtract(wd);
+                bInterest = bInterest.add(bd.multiply(rate).divide(months, 2, RoundingMode.HALF_EVEN));
+            }
+            long bigNs = System.nanoTime() - start;
+            sink += bd.longValue() + bInterest.longValue();
+
+            if (measured) {
+                System.out.printf("  [Bench] money ops (%,d iterations):%n", OPS);
+                System.out.printf("    double     : %,6d ms  (balance ₹%.2f, interest ₹%.2f)%n",
+                        doubleNs / 1_000_000, d, dInterest);
+                System.out.printf("    long paise : %,6d ms  (balance ₹%s, interest ₹%s)%n",
+                        longNs / 1_000_000, Money.format(paise), Money.format(pInterest));
+                System.out.printf("    BigDecimal : %,6d ms  (balance ₹%s, interest ₹%s)%n",
+                        bigNs / 1_000_000, bd.toPlainString(), bInterest.toPlainString());
+            }
+        }
+        if (sink == 42) System.out.println();
+    }
+
+    static void benchIdAllocation() {
+        final int OPS = 10_000_000;
+        AccountIdAllocator allocator = new BlockIdAllocator();
+        long sink = 0;
+        for (int round = 0; round < 4; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < OPS; i++) sink += allocator.next();
+            long elapsed = System.nanoTime() - start;
+            if (round == 3) {
+                System.out.printf("  [Bench] BlockIdAllocator: %,.0f ids/sec on one thread%n", OPS * 1e9 / elapsed);
+            }
+        }
+        if (sink == 42) System.out.println();
+    }
+
+    static void benchBatchTransfers() {
+        final int ACCOUNTS = 1_000;
+        final int BATCH    = 1_000_000;
+        final int PIN      = 1234;
+
+        Bank ledger = new Bank("Bench", true);
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            numbers.add(ledger.openCurrent("Holder " + i, PIN, Money.ofRupees(1_000_000)).getAccountNumber());
+        }
+        List<TransferCommand> batch = new ArrayList<>(BATCH);
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(new TransferCommand(numbers.get(rnd.nextInt(ACCOUNTS)),
+                    numbers.get(rnd.nextInt(ACCOUNTS)), Money.ofRupees(rnd.nextInt(1, 100)), PIN));
+        }
+
+        for (int warmup = 0; warmup < 3; warmup++) ledger.submitBatch(batch);
+
+        long start = System.nanoTime();
+        byte[] results = ledger.submitBatch(batch);
+        long elapsed = System.nanoTime() - start;
+
+        int ok = 0;
+        for (byte r : results) if (r == TransferStatus.OK) ok++;
+        System.out.printf("  [Bench] submitBatch: %,d transfers in %,d ms → %,.0f transfers/sec (%,d OK)%n",
+                BATCH, elapsed / 1_000_000, BATCH * 1e9 / elapsed, ok);
+
+        // An unmatured FD as the source is reported as FD_LOCKED, with no console output
+        FDAccount fd = ledger.openFD("FD Holder", PIN, Money.ofRupees(10_000), 12);
+        byte locked = ledger.submitBatch(List.of(
+                new TransferCommand(fd.getAccountNumber(), numbers.get(0), Money.ofRupees(1), PIN)))[0];
+        System.out.println("  [Bench] Batch transfer out of a locked FD → " + TransferStatus.describe(locked));
+    }
+}
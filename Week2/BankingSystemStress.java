@@ -0,0 +1,212 @@
+// BankingSystemStress.java
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Stress checks for BankingSystem's concurrent ledger, its recovery
+ *  from the write-ahead log, and the id allocator. Each check prints
+ *  ✔ or ✘.
+ *
+ *  Run (compile it together with BankingSystem.java):
+ *    javac BankingSystem.java BankingSystemStress.java
+ *    java BankingSystemStress
+ */
+@SuppressWarnings("auxiliaryclass")   // Bank, Money etc. are top-level classes in BankingSystem.java
+public class BankingSystemStress {
+
+    public static void main(String[] args) {
+        runLedgerStressTest();
+    }
+
+    // Hammers a concurrent Bank with random transfers from many threads
+    // and checks that no money was created or destroyed.
+    static void runLedgerStressTest() {
+        runLedgerTransferStress();
+        runRecoveryStress();
+        runIdAllocatorStress();
+    }
+
+    // Many threads open accounts at once – every number must be unique
+    static void runIdAllocatorStress() {
+        final int THREADS = Runtime.getRuntime().availableProcessors() * 2;
+        final int PER_THREAD = 250_000;
+        AccountIdAllocator allocator = new BlockIdAllocator();
+        Map<Long, Boolean> seen = new ConcurrentHashMap<>();
+        int[] duplicates = {0};
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < PER_THREAD; i++) {
+                    long id = allocator.next();
+                    if (seen.putIfAbsent(id, Boolean.TRUE) != null) {
+                        synchronized (duplicates) { duplicates[0]++; }
+                    }
+                    if (!AccountNumbers.isValid(AccountNumbers.format("Savings", id))) {
+                        synchronized (duplicates) { duplicates[0]++; }
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        try {
+            pool.awaitTermination(5, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        System.out.printf("  [Stress] %,d account ids from %d threads in %,d ms%n",
+                (long) THREADS * PER_THREAD, THREADS, (System.nanoTime() - start) / 1_000_000);
+        System.out.println(duplicates[0] == 0
+                ? "  ✔ All ids unique with valid check digits."
+                : "  ✘ " + duplicates[0] + " duplicate or invalid ids!");
+    }
+
+    static void runLedgerTransferStress() {
+        final int ACCOUNTS  = 64;
+        final int THREADS   = Runtime.getRuntime().availableProcessors() * 2;
+        final int TRANSFERS = 50_000;   // per thread
+        final int PIN       = 1234;
+
+        Bank ledger = new Bank("Stress", true);
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            BankAccount acc = (i % 2 == 0)
+                    ? ledger.openSavings("Holder " + i, PIN, Money.ofRupees(10_000))
+                    : ledger.openCurrent("Holder " + i, PIN, Money.ofRupees(10_000));
+            numbers.add(acc.getAccountNumber());
+        }
+        long before = ledger.totalBalance();
+        System.out.printf("  [Stress] %d accounts, %d threads × %,d transfers%n",
+                ledger.size(), THREADS, TRANSFERS);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            pool.execute(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS; i++) {
+                    String from = numbers.get(rnd.nextInt(numbers.size()));
+                    String to   = numbers.get(rnd.nextInt(numbers.size()));
+                    ledger.transfer(from, to, Money.ofRupees(rnd.nextInt(1, 500)), PIN);
+                }
+            });
+        }
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(5, TimeUnit.MINUTES)) {
+                System.out.println("  ✘ Stress test timed out (possible deadlock).");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        long after = ledger.totalBalance();
+        System.out.printf("  [Stress] %,d transfers in %,d ms%n",
+                (long) THREADS * TRANSFERS, elapsedMs);
+        System.out.printf("  Total before: ₹%s | after: ₹%s%n",
+                Money.format(before), Money.format(after));
+        System.out.println(before == after
+                ? "  ✔ Money conserved."
+                : "  ✘ Money NOT conserved!");
+        long running = ledger.aggregates().totalBalance();
+        System.out.println(running == after
+                ? "  ✔ Running aggregates match a full scan."
+                : "  ✘ Aggregates drifted: ₹" + Money.format(running));
+    }
+
+    // Random transfers on a durable ledger, some of them from an account
+    // to itself, with a snapshot halfway. Reopening the directory must
+    // give back every balance.
+    static void runRecoveryStress() {
+        final int ACCOUNTS  = 8;
+        final int THREADS   = Runtime.getRuntime().availableProcessors() * 2;
+        final int TRANSFERS = 10_000;   // per thread, per half
+        final int PIN       = 1234;
+
+        Path dir;
+        try {
+            dir = Files.createTempDirectory("bank-wal-stress");
+        } catch (IOException e) {
+            System.out.println("  ✘ Recovery check failed: " + e.getMessage());
+            return;
+        }
+        try {
+            Bank durable = Bank.open("Stress", true, dir, 256, 10);
+            List<BankAccount> accounts = new ArrayList<>();
+            for (int i = 0; i < ACCOUNTS; i++) {
+                accounts.add(durable.openCurrent("Holder " + i, PIN, Money.ofRupees(10_000)));
+            }
+            int[] selfAccepted = {0};
+            for (int half = 0; half < 2; half++) {
+                ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+                for (int t = 0; t < THREADS; t++) {
+                    pool.execute(() -> {
+                        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                        for (int i = 0; i < TRANSFERS; i++) {
+                            String from = accounts.get(rnd.nextInt(ACCOUNTS)).getAccountNumber();
+                            String to   = accounts.get(rnd.nextInt(ACCOUNTS)).getAccountNumber();
+                            boolean done = durable.transfer(from, to, Money.ofRupees(rnd.nextInt(1, 500)), PIN);
+                            if (done && from.equals(to)) {
+                                synchronized (selfAccepted) { selfAccepted[0]++; }
+                            }
+                        }
+                    });
+                }
+                pool.shutdown();
+                try {
+                    pool.awaitTermination(5, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (half == 0) durable.snapshot();
+            }
+            durable.close();
+
+            Bank recovered = Bank.open("Stress", true, dir, 256, 10);
+            int mismatched = 0;
+            for (BankAccount acc : accounts) {
+                BankAccount back = recovered.findAccount(acc.getAccountNumber());
+                if (back == null || back.getBalance() != acc.getBalance()) mismatched++;
+            }
+            recovered.close();
+
+            System.out.printf("  [Stress] %,d durable transfers, snapshot halfway, then recovery%n",
+                    2L * THREADS * TRANSFERS);
+            System.out.println(selfAccepted[0] == 0
+                    ? "  ✔ Transfers to the same account refused."
+                    : "  ✘ " + selfAccepted[0] + " transfers to the same account accepted!");
+            System.out.println(mismatched == 0
+                    ? "  ✔ Every balance recovered from snapshot + log."
+                    : "  ✘ " + mismatched + " balances differ after recovery!");
+        } catch (IOException e) {
+            System.out.println("  ✘ Recovery check failed: " + e.getMessage());
+        } finally {
+            try {
+                deleteRecursively(dir);
+            } catch (IOException ignored) { }
+        }
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files) Files.delete(f);
+        }
+        Files.delete(dir);
+    }
+}
@@ -1,3 +1,12 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * ╔══════════════════════════════════════════════════════════╗
  *  DAY 20 – Exception Handling
@@ -38,6 +47,11 @@
  *    ✔ try-with-resources
  *    ✔ Exception chaining
  *    ✔ Refactored BankAccount with proper exception handling
+ *    ✔ Result codes & stackless exceptions for hot rejection paths
+ *
+ *  Run `java ExceptionHandlingBench` to compare the three ways of
+ *  reporting a rejected withdrawal, and `java ExceptionHandlingStress`
+ *  to hammer one account's PIN check from thousands of threads.
  */
 
 // ═══════════════════════════════════════════════════════════
@@ -59,6 +73,14 @@ class BankingException extends Exception {
         this.errorCode = errorCode;
     }
 
+    // Stackless variant: no stack trace is captured and no suppressed
+    // list is kept, so one instance can be created up front and thrown
+    // again and again on hot rejection paths.
+    protected BankingException(String message, String errorCode, boolean stackless) {
+        super(message, null, !stackless, !stackless);
+        this.errorCode = errorCode;
+    }
+
     public String getErrorCode() { return errorCode; }
 
     @Override
@@ -78,6 +100,15 @@ class InsufficientFundsException extends BankingException {
         this.available = available;
     }
 
+    // Shared, stackless – carries no amounts (shortfall is 0)
+    static final InsufficientFundsException PREALLOCATED = new InsufficientFundsException();
+
+    private InsufficientFundsException() {
+        super("Insufficient funds.", "ERR_INSUFFICIENT_FUNDS", true);
+        this.required  = 0;
+        this.available = 0;
+    }
+
     public double getShortfall() { return required - available; }
 }
 
@@ -85,6 +116,12 @@ class InvalidPinException extends BankingException {
     public InvalidPinException() {
         super("Incorrect PIN entered.", "ERR_INVALID_PIN");
     }
+
+    static final InvalidPinException PREALLOCATED = new InvalidPinException(true);
+
+    private InvalidPinException(boolean stackless) {
+        super("Incorrect PIN entered.", "ERR_INVALID_PIN", stackless);
+    }
 }
 
 class AccountLockedException extends BankingException {
@@ -92,12 +129,26 @@ class AccountLockedException extends BankingException {
         super("Account " + accountNumber + " is locked after 3 failed attempts.",
               "ERR_ACCOUNT_LOCKED");
     }
+
+    // Shared, stackless – does not name the account
+    static final AccountLockedException PREALLOCATED = new AccountLockedException();
+
+    private AccountLockedException() {
+        super("Account is locked after 3 failed attempts.", "ERR_ACCOUNT_LOCKED", true);
+    }
 }
 
 class InvalidAmountException extends BankingException {
     public InvalidAmountException(double amount) {
         super("Invalid amount: ₹" + amount + ". Must be positive.", "ERR_INVALID_AMOUNT");
     }
+
+    // Shared, stackless – does not repeat the amount
+    static final InvalidAmountException PREALLOCATED = new InvalidAmountException();
+
+    private InvalidAmountException() {
+        super("Invalid amount. Must be positive.", "ERR_INVALID_AMOUNT", true);
+    }
 }
 
 /** Custom runtime exception for validation errors */
@@ -108,6 +159,132 @@ class ValidationException extends RuntimeException {
 }
 
 
+// ═══════════════════════════════════════════════════════════
+//  WITHDRAW OUTCOME – result code instead of an exception
+// ═══════════════════════════════════════════════════════════
+/**
+ *  A rejected withdrawal is not exceptional when most requests are
+ *  fraud probes (wrong PIN, draining attempts). Returning a constant
+ *  costs nothing; building an exception captures the whole stack.
+ */
+enum WithdrawOutcome {
+    OK,
+    INVALID_AMOUNT,
+    INVALID_PIN,
+    ACCOUNT_LOCKED,
+    INSUFFICIENT_FUNDS;
+
+    public boolean isSuccess() { return this == OK; }
+
+    // The matching preallocated, stackless exception (null for OK)
+    public BankingException exception() {
+        switch (this) {
+            case INVALID_AMOUNT:     return InvalidAmountException.PREALLOCATED;
+            case INVALID_PIN:        return InvalidPinException.PREALLOCATED;
+            case ACCOUNT_LOCKED:     return AccountLockedException.PREALLOCATED;
+            case INSUFFICIENT_FUNDS: return InsufficientFundsException.PREALLOCATED;
+            default:                 return null;
+        }
+    }
+}
+
+
+// ═══════════════════════════════════════════════════════════
+//  PIN THROTTLE – lock-free failed-attempt state machine
+// ═══════════════════════════════════════════════════════════
+/**
+ *  All of the throttle state lives in ONE AtomicLong, so a single CAS
+ *  moves it from one consistent state to the next. Two wrong PINs
+ *  racing each other can't both see "2 failures" and slip past the
+ *  limit; one of them retries and sees the other's update.
+ *
+ *  State layout:
+ *    bits  0..7   failed attempts since the last success / unlock
+ *    bit   8      locked
+ *    bits  9..14  lockout level (lockouts in a row, drives the backoff)
+ *    bits 15..63  lock expiry, epoch millis
+ *
+ *  A lock expires on its own. Each lockout in a row doubles the wait
+ *  (base, 2×base, 4×base … up to MAX_LOCKOUT_MILLIS); a correct PIN
+ *  resets everything.
+ *
+ *  Requests against a locked account and correct PINs on a clean
+ *  account only READ the state, so they never contend.
+ */
+final class PinThrottle {
+
+    static final int  MAX_FAILED_ATTEMPTS = 3;
+    static final long MAX_LOCKOUT_MILLIS  = 24L * 60 * 60 * 1000;   // one day
+
+    private static final long ATTEMPTS_MASK = 0xFF;
+    private static final long LOCKED_BIT    = 1L << 8;
+    private static final int  LEVEL_SHIFT   = 9;
+    private static final long LEVEL_MASK    = 0x3F;
+    private static final int  EXPIRY_SHIFT  = 15;
+
+    private final AtomicLong state = new AtomicLong();
+    private final long baseLockoutMillis;
+
+    PinThrottle(long baseLockoutMillis) {
+        this.baseLockoutMillis = baseLockoutMillis;
+    }
+
+    // Records one PIN attempt: OK, INVALID_PIN or ACCOUNT_LOCKED
+    WithdrawOutcome attempt(boolean pinMatches, long nowMillis) {
+        while (true) {
+            long current = state.get();
+            long base    = current;
+            if ((current & LOCKED_BIT) != 0) {
+                if (nowMillis < expiry(current)) return WithdrawOutcome.ACCOUNT_LOCKED;
+                base = level(current) << LEVEL_SHIFT;   // expired: clear attempts, keep level
+            }
+
+            long next;
+            WithdrawOutcome outcome;
+            if (pinMatches) {
+                next    = 0;
+                outcome = WithdrawOutcome.OK;
+            } else {
+                long attempts = (base & ATTEMPTS_MASK) + 1;
+                long level    = level(base);
+                if (attempts >= MAX_FAILED_ATTEMPTS) {
+                    long until = nowMillis + lockoutMillis(level);
+                    next    = (until << EXPIRY_SHIFT) | (Math.min(level + 1, LEVEL_MASK) << LEVEL_SHIFT) | LOCKED_BIT;
+                    outcome = WithdrawOutcome.ACCOUNT_LOCKED;
+                } else {
+                    next    = (level << LEVEL_SHIFT) | attempts;
+                    outcome = WithdrawOutcome.INVALID_PIN;
+                }
+            }
+            if (next == current || state.compareAndSet(current, next)) return outcome;
+        }
+    }
+
+    boolean isLocked(long nowMillis) {
+        long current = state.get();
+        return (current & LOCKED_BIT) != 0 && nowMillis < expiry(current);
+    }
+
+    // Epoch millis the current lock ends at (0 if not locked)
+    long lockedUntil() {
+        long current = state.get();
+        return (current & LOCKED_BIT) != 0 ? expiry(current) : 0;
+    }
+
+    int failedAttempts() { return (int) (state.get() & ATTEMPTS_MASK); }
+
+    // base × 2^level, capped
+    long lockoutMillis(long level) {
+        long millis = baseLockoutMillis;
+        for (long i = 0; i < level && millis < MAX_LOCKOUT_MILLIS; i++) millis <<= 1;
+        return Math.min(millis, MAX_LOCKOUT_MILLIS);
+    }
+
+    private static long level(long s)  { return (s >>> LEVEL_SHIFT) & LEVEL_MASK; }
+    private static long expiry(long s) { return s >>> EXPIRY_SHIFT; }
+}
+
+
 // ═══════════════════════════════════════════════════════════
 //  REFACTORED BankAccount with exceptions
 // ═══════════════════════════════════════════════════════════
@@ -117,35 +294,40 @@ class SecureBankAccount {
     private final String holderName;
     private       double balance;
     private       int    pin;
-    private       int    failedAttempts;
-    private       boolean locked;
+    private final PinThrottle throttle = new PinThrottle(LOCKOUT_MILLIS);
 
-    private static final int MAX_FAILED_ATTEMPTS = 3;
+    private static final long LOCKOUT_MILLIS = 30_000;   // first lockout; doubles each time
 
     public SecureBankAccount(String holder, int pin, double initialBalance)
             throws InvalidAmountException {
+        this("ACC" + (int)(Math.random() * 900_000 + 100_000), holder, pin, initialBalance);
+        System.out.printf("[Account] Opened: %s for %s | Balance: ₹%.2f%n",
+                accountNumber, holder, balance);
+    }
+
+    // Silent constructor with a caller-chosen number (used by AccountRegistry)
+    SecureBankAccount(String accountNumber, String holder, int pin, double initialBalance)
+            throws InvalidAmountException {
         if (initialBalance < 0) throw new InvalidAmountException(initialBalance);
         this.holderName    = holder;
         this.pin           = pin;
         this.balance       = initialBalance;
-        this.accountNumber = "ACC" + (int)(Math.random() * 900_000 + 100_000);
-        System.out.printf("[Account] Opened: %s for %s | Balance: ₹%.2f%n",
-                accountNumber, holder, balance);
+        this.accountNumber = accountNumber;
     }
 
     private void checkPin(int enteredPin)
             throws InvalidPinException, AccountLockedException {
-        if (locked) throw new AccountLockedException(accountNumber);
-
-        if (enteredPin != this.pin) {
-            failedAttempts++;
-            if (failedAttempts >= MAX_FAILED_ATTEMPTS) {
-                locked = true;
-                throw new AccountLockedException(accountNumber);
-            }
-            throw new InvalidPinException();
+        switch (verifyPin(enteredPin)) {
+            case ACCOUNT_LOCKED: throw new AccountLockedException(accountNumber);
+            case INVALID_PIN:    throw new InvalidPinException();
+            default:             break;
         }
-        failedAttempts = 0;   // reset on success
+    }
+
+    // PIN check as a result code: OK, INVALID_PIN or ACCOUNT_LOCKED.
+    // Safe to call from many threads at once (see PinThrottle).
+    WithdrawOutcome verifyPin(int enteredPin) {
+        return throttle.attempt(enteredPin == this.pin, System.currentTimeMillis());
     }
 
     public void deposit(double amount) throws InvalidAmountException {
@@ -164,9 +346,130 @@ class SecureBankAccount {
         System.out.printf("  ✔ Withdrew ₹%.2f | Balance: ₹%.2f%n", amount, balance);
     }
 
+    // Quiet deposit: OK or INVALID_AMOUNT, nothing printed
+    public WithdrawOutcome tryDeposit(double amount) {
+        if (amount <= 0) return WithdrawOutcome.INVALID_AMOUNT;
+        balance += amount;
+        return WithdrawOutcome.OK;
+    }
+
+    // Same checks, in the same order, as withdraw() – but rejections
+    // come back as a result code and nothing is printed.
+    public WithdrawOutcome tryWithdraw(double amount, int pin) {
+        if (amount <= 0) return WithdrawOutcome.INVALID_AMOUNT;
+        WithdrawOutcome pinOutcome = verifyPin(pin);
+        if (pinOutcome != WithdrawOutcome.OK) return pinOutcome;
+        if (amount > balance) return WithdrawOutcome.INSUFFICIENT_FUNDS;
+        balance -= amount;
+        return WithdrawOutcome.OK;
+    }
+
+    // For callers that want exceptions on a hot path: throws the shared
+    // stackless instances, which carry no per-call details.
+    public void withdrawFast(double amount, int pin) throws BankingException {
+        WithdrawOutcome outcome = tryWithdraw(amount, pin);
+        if (!outcome.isSuccess()) throw outcome.exception();
+    }
+
     public double getBalance() { return balance; }
     public String getAccountNumber() { return accountNumber; }
-    public boolean isLocked() { return locked; }
+    public boolean isLocked() { return throttle.isLocked(System.currentTimeMillis()); }
+    public long lockedUntil() { return throttle.lockedUntil(); }
+}
+
+
+// ═══════════════════════════════════════════════════════════
+//  ACCOUNT REGISTRY – sharded, one thread per shard
+// ═══════════════════════════════════════════════════════════
+/**
+ *  Accounts are split across N shards by hash of the account number.
+ *  Each shard owns its accounts outright and runs on its own single
+ *  thread (actor style): every deposit / withdraw is queued to the
+ *  owning shard and executed there, so no account is ever touched by
+ *  two threads and no locks are needed. Shards share nothing, so
+ *  throughput grows with the number of shards, up to the core count.
+ *
+ *  Callers get a CompletableFuture; an unknown account number
+ *  completes it exceptionally with IllegalArgumentException.
+ */
+class AccountRegistry implements AutoCloseable {
+
+    private final ExecutorService[]                shards;
+    private final Map<String, SecureBankAccount>[] accounts;   // accounts[i] is only used by shard i
+    private final AtomicInteger nextNumber = new AtomicInteger(100_000);
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public AccountRegistry(int shardCount) {
+        if (shardCount <= 0) throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        shards   = new ExecutorService[shardCount];
+        accounts = new Map[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            final String threadName = "shard-" + i;
+            shards[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+            accounts[i] = new HashMap<>();
+        }
+    }
+
+    public int shardCount() { return shards.length; }
+
+    int shardOf(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+
+    // Opens an account on its shard; numbers are ACC100000, ACC100001, …
+    public CompletableFuture<SecureBankAccount> open(String holder, int pin, double initialBalance) {
+        String number = "ACC" + nextNumber.getAndIncrement();
+        int shard = shardOf(number);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                SecureBankAccount acc = new SecureBankAccount(number, holder, pin, initialBalance);
+                accounts[shard].put(number, acc);
+                return acc;
+            } catch (InvalidAmountException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }, shards[shard]);
+    }
+
+    public CompletableFuture<WithdrawOutcome> deposit(String accountNumber, double amount) {
+        int shard = shardOf(accountNumber);
+        return CompletableFuture.supplyAsync(
+                () -> owned(shard, accountNumber).tryDeposit(amount), shards[shard]);
+    }
+
+    public CompletableFuture<WithdrawOutcome> withdraw(String accountNumber, double amount, int pin) {
+        int shard = shardOf(accountNumber);
+        return CompletableFuture.supplyAsync(
+                () -> owned(shard, accountNumber).tryWithdraw(amount, pin), shards[shard]);
+    }
+
+    public CompletableFuture<Double> balance(String accountNumber) {
+        int shard = shardOf(accountNumber);
+        return CompletableFuture.supplyAsync(
+                () -> owned(shard, accountNumber).getBalance(), shards[shard]);
+    }
+
+    // Runs on the shard's thread
+    private SecureBankAccount owned(int shard, String accountNumber) {
+        SecureBankAccount acc = accounts[shard].get(accountNumber);
+        if (acc == null) throw new IllegalArgumentException("Unknown account: " + accountNumber);
+        return acc;
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService shard : shards) shard.shutdown();
+        try {
+            for (ExecutorService shard : shards) shard.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
 
 
@@ -0,0 +1,147 @@
+// ExceptionHandlingBench.java
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ *  Benchmarks for ExceptionHandling. Rejected withdrawals reported three ways:
+ *    throwing  – new exception per rejection (full stack trace)
+ *    stackless – shared preallocated exception, no stack trace
+ *    result    – WithdrawOutcome, nothing thrown at all
+ *  Each runs a few warm-up rounds so the JIT has compiled it. Then the
+ *  sharded AccountRegistry under load, for 1, 2, 4 and 8 shards.
+ *
+ *  Run:
+ *    javac *.java && java ExceptionHandlingBench
+ */
+@SuppressWarnings("auxiliaryclass")   // SecureBankAccount etc. are top-level classes in ExceptionHandling.java
+public class ExceptionHandlingBench {
+
+    public static void main(String[] args) {
+        runBenchmarks();
+    }
+
+    static final int BENCH_OPS = 1_000_000;
+
+    static void runBenchmarks() {
+        // Insufficient funds: correct PIN, amount above the balance
+        benchRejections("insufficient funds", 1_000.0, 1234);
+        // Bad PIN: a correct-PIN call after every two misses keeps it unlocked
+        benchRejections("bad PIN", 1.0, 9999);
+
+        for (int shards : new int[]{1, 2, 4, 8}) benchRegistry(shards);
+    }
+
+    // Load generator: CLIENTS threads send deposits / withdrawals to
+    // random accounts, WINDOW requests in flight each; latency is
+    // measured from submit to completion on the shard.
+    static void benchRegistry(int shardCount) {
+        final int ACCOUNTS = 10_000;
+        final int CLIENTS  = 4;
+        final int OPS      = 100_000;   // per client
+        final int WINDOW   = 256;
+
+        try (AccountRegistry registry = new AccountRegistry(shardCount)) {
+            String[] numbers = new String[ACCOUNTS];
+            List<CompletableFuture<SecureBankAccount>> opened = new ArrayList<>();
+            for (int i = 0; i < ACCOUNTS; i++) opened.add(registry.open("Holder " + i, 1234, 10_000.0));
+            for (int i = 0; i < ACCOUNTS; i++) numbers[i] = opened.get(i).join().getAccountNumber();
+
+            for (int round = 0; round < 2; round++) {          // round 0 is warm-up
+                long[][] latencies = new long[CLIENTS][OPS];
+                Thread[] clients = new Thread[CLIENTS];
+                long start = System.nanoTime();
+                for (int c = 0; c < CLIENTS; c++) {
+                    final long[] mine = latencies[c];
+                    clients[c] = new Thread(() -> {
+                        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                        long[] submitted = new long[WINDOW];
+                        long[] completed = new long[WINDOW];
+                        CompletableFuture<?>[] inFlight = new CompletableFuture<?>[WINDOW];
+                        for (int base = 0; base < OPS; base += WINDOW) {
+                            int n = Math.min(WINDOW, OPS - base);
+                            for (int i = 0; i < n; i++) {
+                                final int slot = i;
+                                String number = numbers[rnd.nextInt(ACCOUNTS)];
+                                submitted[i] = System.nanoTime();
+                                CompletableFuture<WithdrawOutcome> op = rnd.nextBoolean()
+                                        ? registry.deposit(number, 100.0)
+                                        : registry.withdraw(number, 100.0, 1234);
+                                inFlight[i] = op.whenComplete((o, e) -> completed[slot] = System.nanoTime());
+                            }
+                            for (int i = 0; i < n; i++) {
+                                inFlight[i].join();
+                                mine[base + i] = completed[i] - submitted[i];
+                            }
+                        }
+                    });
+                    clients[c].start();
+                }
+                try {
+                    for (Thread client : clients) client.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long elapsed = System.nanoTime() - start;
+
+                if (round == 1) {
+                    long[] all = new long[CLIENTS * OPS];
+                    for (int c = 0; c < CLIENTS; c++) System.arraycopy(latencies[c], 0, all, c * OPS, OPS);
+                    Arrays.sort(all);
+                    System.out.printf("  [Bench] registry %d shard(s), %d cores: %,.0f ops/sec | p50 %,d µs | p99 %,d µs%n",
+                            shardCount, Runtime.getRuntime().availableProcessors(),
+                            (double) all.length * 1e9 / elapsed,
+                            all[all.length / 2] / 1_000, all[(int) (all.length * 0.99)] / 1_000);
+                }
+            }
+        }
+    }
+
+    // Rejections against a fresh account holding ₹100 (PIN 1234)
+    static void benchRejections(String label, double amount, int pin) {
+        SecureBankAccount account;
+        try {
+            account = new SecureBankAccount("Bench Holder", 1234, 100.0);
+        } catch (InvalidAmountException e) {
+            throw new IllegalStateException(e);
+        }
+        long throwingNs = 0, stacklessNs = 0, resultNs = 0, sink = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < BENCH_OPS; i++) {
+                try {
+                    account.withdraw(amount, pin);
+                } catch (BankingException e) {
+                    sink += e.getErrorCode().length();
+                }
+                if (pin != 1234 && (i & 1) == 1) account.tryWithdraw(0.01, 1234);
+            }
+            throwingNs = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < BENCH_OPS; i++) {
+                try {
+                    account.withdrawFast(amount, pin);
+                } catch (BankingException e) {
+                    sink += e.getErrorCode().length();
+                }
+                if (pin != 1234 && (i & 1) == 1) account.tryWithdraw(0.01, 1234);
+            }
+            stacklessNs = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < BENCH_OPS; i++) {
+                sink += account.tryWithdraw(amount, pin).ordinal();
+                if (pin != 1234 && (i & 1) == 1) account.tryWithdraw(0.01, 1234);
+            }
+            resultNs = System.nanoTime() - start;
+        }
+        System.out.printf("  [Bench] %-18s: throwing %,7.1f ns | stackless %,5.1f ns | result code %,5.1f ns%n",
+                label, (double) throwingNs / BENCH_OPS, (double) stacklessNs / BENCH_OPS,
+                (double) resultNs / BENCH_OPS);
+        if (sink == 42) System.out.println();
+    }
+}
@@ -0,0 +1,98 @@
+// ExceptionHandlingStress.java
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  Stress check for ExceptionHandling's SecureBankAccount: hammers one
+ *  account's PIN check from thousands of threads.
+ *
+ *  Run:
+ *    javac *.java && java ExceptionHandlingStress
+ */
+@SuppressWarnings("auxiliaryclass")   // SecureBankAccount etc. are top-level classes in ExceptionHandling.java
+public class ExceptionHandlingStress {
+
+    public static void main(String[] args) {
+        runPinStressTest();
+    }
+
+    static void runPinStressTest() {
+        SecureBankAccount account;
+        try {
+            account = new SecureBankAccount("Stress Holder", 1234, 100.0);
+        } catch (InvalidAmountException e) {
+            throw new IllegalStateException(e);
+        }
+
+        // 1. Thousands of wrong PINs released at the same instant:
+        //    exactly MAX_FAILED_ATTEMPTS - 1 may be told "invalid PIN"
+        final int THREADS = 2_000;
+        AtomicInteger invalid = new AtomicInteger(), lockedOut = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(THREADS), go = new CountDownLatch(1);
+        Thread[] workers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            workers[t] = new Thread(() -> {
+                ready.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                WithdrawOutcome outcome = account.verifyPin(9999);
+                (outcome == WithdrawOutcome.INVALID_PIN ? invalid : lockedOut).incrementAndGet();
+            });
+            workers[t].start();
+        }
+        try {
+            ready.await();
+            go.countDown();
+            for (Thread worker : workers) worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        System.out.printf("  [Stress] %,d concurrent wrong PINs: %d invalid, %,d locked out%n",
+                THREADS, invalid.get(), lockedOut.get());
+        System.out.println(invalid.get() == PinThrottle.MAX_FAILED_ATTEMPTS - 1 && account.isLocked()
+                ? "  ✔ Attempt limit held under contention."
+                : "  ✘ Attempt limit was exceeded!");
+
+        // 2. Backoff, on a simulated clock: 20 ms, then 40 ms, then 80 ms
+        PinThrottle throttle = new PinThrottle(20);
+        long now = 0;
+        boolean backoffOk = true;
+        for (long expected : new long[]{20, 40, 80}) {
+            for (int i = 0; i < PinThrottle.MAX_FAILED_ATTEMPTS; i++) throttle.attempt(false, now);
+            backoffOk &= throttle.lockedUntil() == now + expected
+                    && throttle.attempt(true, now + expected - 1) == WithdrawOutcome.ACCOUNT_LOCKED;
+            now += expected;                               // lock expires on its own
+        }
+        backoffOk &= throttle.attempt(true, now) == WithdrawOutcome.OK;    // success resets the level
+        for (int i = 0; i < PinThrottle.MAX_FAILED_ATTEMPTS; i++) throttle.attempt(false, now);
+        backoffOk &= throttle.lockedUntil() == now + 20;
+        System.out.println(backoffOk
+                ? "  ✔ Lockouts expire and back off 20 → 40 → 80 ms, reset on success."
+                : "  ✘ Backoff schedule is wrong!");
+
+        // 3. Cost per check while 8 threads hammer one (locked) account
+        final int OPS = 2_000_000;
+        Thread[] hammer = new Thread[8];
+        long start = System.nanoTime();
+        for (int t = 0; t < hammer.length; t++) {
+            hammer[t] = new Thread(() -> {
+                for (int i = 0; i < OPS; i++) account.verifyPin(i);
+            });
+            hammer[t].start();
+        }
+        try {
+            for (Thread worker : hammer) worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("  [Stress] %,d PIN checks from %d threads in %,d ms (%,.0f checks/sec)%n",
+                (long) OPS * hammer.length, hammer.length, elapsed / 1_000_000,
+                (double) OPS * hammer.length * 1e9 / elapsed);
+    }
+}
@@ -1,4 +1,31 @@
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * ╔══════════════════════════════════════════════════════════╗
@@ -15,6 +42,7 @@ import java.util.*;
  *    ✔ Low-stock alert
  *    ✔ Inventory summary (total value, category breakdown)
  *    ✔ In-memory storage using HashMap (id → Product)
+ *    ✔ Bulk CSV import (parallel parse, published in one step)
  *
  *  Week 3 concepts applied:
  *    ✔ Arrays           – int[] for batch operations
@@ -23,6 +51,22 @@ import java.util.*;
  *    ✔ String methods   – search, formatting, validation
  *    ✔ Exception handling – custom exceptions, input validation
  *    ✔ StringBuilder    – report building
+ *
+ *  Indexes:
+ *    Inventory keeps secondary indexes next to the primary store.
+ *    A Product added to an Inventory reports its own changes back to
+ *    it (see Product.owner), so editing a product directly through
+ *    its setters keeps every index consistent.
+ *
+ *  Concurrency:
+ *    Inventory is thread-safe. Stock moves (adjustStock, reserve /
+ *    commit / release) are a CAS on the product and take no lock, so
+ *    hot SKUs can be hit from hundreds of threads without overselling;
+ *    the indexes catch up right after. Everything else holds the
+ *    inventory's lock.
+ *
+ *  Run `java InventoryManagerBench` for the large-catalogue benchmarks
+ *  and `java InventoryManagerStress` for the flash-sale checkout test.
  */
 
 // ═══════════════════════════════════════════════════════════
@@ -47,23 +91,133 @@ class InvalidProductDataException extends RuntimeException {
 }
 
 
+// ═══════════════════════════════════════════════════════════
+//  PRODUCT IDS  (pluggable allocator)
+// ═══════════════════════════════════════════════════════════
+/** Hands out product ids; must be safe to call from any thread. */
+interface ProductIdAllocator {
+    int nextId();
+}
+
+/**
+ *  Each thread leases a block of ids from a shared counter and hands
+ *  them out locally, so concurrent adds touch shared state once per
+ *  block instead of once per product.
+ *
+ *  With a file, the allocator also keeps a high-water mark on disk:
+ *  no id is handed out until the mark is past it, and a restarted
+ *  allocator resumes from the mark. Ids stay unique across restarts;
+ *  the unused tail of a block or of the mark is simply skipped.
+ */
+final class BlockIdAllocator implements ProductIdAllocator {
+
+    static final int DEFAULT_BLOCK = 64;
+
+    private final int  blockSize;
+    private final long persistAhead;          // how far past a block the mark is pushed
+    private final Path markFile;              // null = in memory only
+    private final AtomicLong leased;          // start of the next free block
+    private volatile long persistedMark;      // ids below this are safe to hand out
+
+    // Per thread: [next id, end of block)
+    private final ThreadLocal<int[]> lease = ThreadLocal.withInitial(() -> new int[2]);
+
+    private BlockIdAllocator(long firstId, int blockSize, Path markFile) {
+        if (blockSize < 1) throw new IllegalArgumentException("blockSize must be positive");
+        this.blockSize     = blockSize;
+        this.persistAhead  = (long) blockSize * 64;
+        this.markFile      = markFile;
+        this.leased        = new AtomicLong(firstId);
+        this.persistedMark = markFile == null ? Long.MAX_VALUE : firstId;
+    }
+
+    /** In-memory allocator starting at firstId. */
+    static BlockIdAllocator inMemory(int firstId, int blockSize) {
+        return new BlockIdAllocator(firstId, blockSize, null);
+    }
+
+    /** Resumes from the mark in markFile (or firstId if there is none yet). */
+    static BlockIdAllocator persistent(Path markFile, int firstId, int blockSize) {
+        long start = firstId;
+        try {
+            if (Files.exists(markFile)) {
+                start = Math.max(start, Long.parseLong(Files.readString(markFile, StandardCharsets.UTF_8).trim()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read id mark " + markFile, e);
+        }
+        return new BlockIdAllocator(start, blockSize, markFile);
+    }
+
+    @Override
+    public int nextId() {
+        int[] l = lease.get();
+        if (l[0] == l[1]) {
+            int start = leaseBlock();
+            l[0] = start;
+            l[1] = start + blockSize;
+        }
+        return l[0]++;
+    }
+
+    private int leaseBlock() {
+        long start = leased.getAndAdd(blockSize);
+        long end   = start + blockSize;
+        if (end > Integer.MAX_VALUE) throw new IllegalStateException("Product ids exhausted");
+        if (end > persistedMark) persistUpTo(end);
+        return (int) start;
+    }
+
+    // Writes a new mark (temp file + atomic rename) before any id below it is used
+    private synchronized void persistUpTo(long end) {
+        if (end <= persistedMark) return;
+        long mark = Math.min(end + persistAhead, Integer.MAX_VALUE);
+        Path tmp = markFile.resolveSibling(markFile.getFileName() + ".tmp");
+        try {
+            Files.writeString(tmp, Long.toString(mark), StandardCharsets.UTF_8);
+            Files.move(tmp, markFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot persist id mark " + markFile, e);
+        }
+        persistedMark = mark;
+    }
+}
+
+
 // ═══════════════════════════════════════════════════════════
 //  PRODUCT  (encapsulated data class)
 // ═══════════════════════════════════════════════════════════
 class Product {
 
-    private static int  nextId = 1000;  // auto-increment ID generator
+    // Id source for new products (swap with setIdAllocator)
+    private static volatile ProductIdAllocator idAllocator =
+            BlockIdAllocator.inMemory(1000, BlockIdAllocator.DEFAULT_BLOCK);
+
+    private final    int    id;
+    private volatile String name;
+    private volatile String category;
+    private volatile double price;
+    private volatile int    quantity;          // changed with CAS (see QUANTITY)
+    private volatile int    lowStockThreshold;
+
+    private static final AtomicIntegerFieldUpdater<Product> QUANTITY =
+            AtomicIntegerFieldUpdater.newUpdater(Product.class, "quantity");
+    private static final AtomicIntegerFieldUpdater<Product> STOCK_DIRTY =
+            AtomicIntegerFieldUpdater.newUpdater(Product.class, "stockDirty");
+
+    // Inventory this product belongs to (null until added) – told
+    // about every change so it can keep its indexes in step
+    private volatile Inventory owner;
 
-    private final int    id;
-    private       String name;
-    private       String category;
-    private       double price;
-    private       int    quantity;
-    private       int    lowStockThreshold;
+    // ── Owner's bookkeeping (only touched under the owner's lock) ──
+    private int categoryCode = -1;     // owner's dictionary code for category
+    private int indexedQuantity;       // quantity / threshold the owner's
+    private int indexedThreshold;      //   indexes currently reflect
+    private volatile int stockDirty;   // 1 = queued for the owner to re-index
 
     public Product(String name, String category, double price, int quantity) {
         validate(name, category, price, quantity);
-        this.id                = nextId++;
+        this.id                = idAllocator.nextId();
         this.name              = name.trim();
         this.category          = category.trim();
         this.price             = price;
@@ -71,7 +225,8 @@ class Product {
         this.lowStockThreshold = 5;        // default alert threshold
     }
 
-    private void validate(String name, String category, double price, int qty) {
+    // Also applied row by row by CatalogueImporter
+    static void validate(String name, String category, double price, int qty) {
         if (name == null || name.trim().isEmpty())
             throw new InvalidProductDataException("name", "cannot be empty");
         if (category == null || category.trim().isEmpty())
@@ -91,47 +246,131 @@ class Product {
     public double getTotalValue() { return price * quantity; }
     public boolean isLowStock() { return quantity <= lowStockThreshold && quantity > 0; }
     public boolean isOutOfStock() { return quantity == 0; }
+    public boolean needsRestock() { return needsRestock(quantity, lowStockThreshold); }
+    public int    getLowStockThreshold() { return lowStockThreshold; }
+
+    public static void setIdAllocator(ProductIdAllocator allocator) {
+        idAllocator = Objects.requireNonNull(allocator);
+    }
+
+    // Low or out of stock, for any (quantity, threshold) pair
+    static boolean needsRestock(int quantity, int threshold) {
+        return quantity == 0 || quantity <= threshold;
+    }
 
     // ── Setters with validation ───────────────────────────────
+    // Name, category and price changes go through the owner (under its
+    // lock) so the indexes and the field change together.
+
     public void setName(String name) {
         if (name == null || name.trim().isEmpty())
             throw new InvalidProductDataException("name", "cannot be empty");
-        this.name = name.trim();
+        Inventory o = owner;
+        if (o != null) o.applyRename(this, name.trim());   // may reject a duplicate
+        else           this.name = name.trim();
     }
 
     public void setCategory(String category) {
         if (category == null || category.trim().isEmpty())
             throw new InvalidProductDataException("category", "cannot be empty");
-        this.category = category.trim();
+        Inventory o = owner;
+        if (o != null) o.applyCategory(this, category.trim());
+        else           this.category = category.trim();
     }
 
     public void setPrice(double price) {
         if (price < 0) throw new InvalidProductDataException("price", "cannot be negative");
-        this.price = price;
+        Inventory o = owner;
+        if (o != null) o.applyPrice(this, price);
+        else           this.price = price;
     }
 
+    // Stock changes are lock-free; the owner re-indexes afterwards.
+
     public void setQuantity(int quantity) {
         if (quantity < 0) throw new InvalidProductDataException("quantity", "cannot be negative");
         this.quantity = quantity;
+        stockMoved();
     }
 
     public void adjustQuantity(int delta) {
-        int newQty = this.quantity + delta;
-        if (newQty < 0)
-            throw new InvalidProductDataException("quantity",
-                    "adjustment would make stock negative (current: " + quantity + ", delta: " + delta + ")");
-        this.quantity = newQty;
+        while (true) {
+            int current = quantity;
+            int newQty  = current + delta;
+            if (newQty < 0)
+                throw new InvalidProductDataException("quantity",
+                        "adjustment would make stock negative (current: " + current + ", delta: " + delta + ")");
+            if (QUANTITY.compareAndSet(this, current, newQty)) break;
+        }
+        stockMoved();
+    }
+
+    // Takes qty units if that many are in stock – never oversells
+    boolean tryTake(int qty) {
+        while (true) {
+            int current = quantity;
+            if (current < qty) return false;
+            if (QUANTITY.compareAndSet(this, current, current - qty)) break;
+        }
+        stockMoved();
+        return true;
+    }
+
+    public void setLowStockThreshold(int t) {
+        this.lowStockThreshold = t;
+        stockMoved();
+    }
+
+    private void stockMoved() {
+        Inventory o = owner;
+        if (o != null) o.onStockMoved(this);
+    }
+
+    // ── Owner hooks ───────────────────────────────────────────
+    void setOwner(Inventory owner) { this.owner = owner; }
+    Inventory getOwner()           { return owner; }
+
+    void assignName(String name)         { this.name = name; }
+    void assignCategory(String category) { this.category = category; }
+    void assignPrice(double price)       { this.price = price; }
+
+    int  getCategoryCode()         { return categoryCode; }
+    void setCategoryCode(int code) { this.categoryCode = code; }
+
+    int  getIndexedQuantity()  { return indexedQuantity;  }
+    int  getIndexedThreshold() { return indexedThreshold; }
+    void setIndexedStock(int quantity, int threshold) {
+        this.indexedQuantity  = quantity;
+        this.indexedThreshold = threshold;
     }
 
-    public void setLowStockThreshold(int t) { this.lowStockThreshold = t; }
+    boolean markStockDirty()  { return STOCK_DIRTY.compareAndSet(this, 0, 1); }
+    void    clearStockDirty() { stockDirty = 0; }
 
     // ── Display ───────────────────────────────────────────────
+    // Formatted with Locale.ROOT, so toTableRow and TableRenderer print
+    // the same '.' decimals whatever the default locale
+    static final String TABLE_HEADER_FORMAT = "  %-6s %-22s %-14s %8s  %6s  %10s  %-12s";
+    static final String TABLE_ROW_FORMAT    = "  %-6d %-22s %-14s %8.2f  %6d  %10.2f  %-12s";
+    static final TableRenderer.Layout TABLE_ROW = TableRenderer.Layout.parse(TABLE_ROW_FORMAT);
+
     public String toTableRow() {
-        String status = isOutOfStock() ? "OUT OF STOCK"
-                      : isLowStock()   ? "⚠ LOW"
-                      : "OK";
-        return String.format("  %-6d %-22s %-14s %8.2f  %6d  %10.2f  %-12s",
-                id, name, category, price, quantity, getTotalValue(), status);
+        int q = quantity;
+        return String.format(Locale.ROOT, TABLE_ROW_FORMAT,
+                id, name, category, price, q, price * q, stockStatus(q, lowStockThreshold));
+    }
+
+    // Same row as toTableRow, written into a report without formatting objects
+    public void writeTableRow(TableRenderer out) {
+        int q = quantity;
+        out.row(TABLE_ROW).cell(id).cell(name).cell(category).cell(price)
+           .cell(q).cell(price * q).cell(stockStatus(q, lowStockThreshold)).endRow();
+    }
+
+    private static String stockStatus(int quantity, int threshold) {
+        return quantity == 0         ? "OUT OF STOCK"
+             : quantity <= threshold ? "⚠ LOW"
+             : "OK";
     }
 
     @Override
@@ -142,37 +381,1366 @@ class Product {
 }
 
 
+// ═══════════════════════════════════════════════════════════
+//  STOCK ALERTS  (listener for low-stock threshold crossings)
+// ═══════════════════════════════════════════════════════════
+/** Told whenever a product in an Inventory starts or stops needing restock */
+interface StockAlertListener {
+    void onStockAlert(Product product, boolean needsRestock);
+}
+
+
+// ═══════════════════════════════════════════════════════════
+//  TRIGRAM INDEX  (substring search over product names)
+// ═══════════════════════════════════════════════════════════
+/**
+ *  Every 3-character window of a (lower-cased) name is a trigram;
+ *  each trigram maps to the sorted ids of the products containing it.
+ *  Any substring of length ≥ 3 can only occur in products that hold
+ *  ALL of its trigrams, so a search intersects those posting lists
+ *  (smallest first) and only checks the few survivors with contains().
+ *
+ *  Ids are handed out in increasing order, so adds are appends; renames
+ *  and removals use binary search. Trigrams are kept as primitive longs
+ *  in an open-addressing table, so indexing a name allocates nothing
+ *  but the occasional posting-list growth.
+ */
+class TrigramIndex {
+
+    /** Sorted, growable int array of product ids */
+    private static final class PostingList {
+        int[] ids = new int[4];
+        int   size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {          // out of order: insert in place
+                int at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) return;
+                insertAt(-at - 1, id);
+                return;
+            }
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        private void insertAt(int at, int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) return;
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+        }
+    }
+
+    static final int GRAM = 3;
+
+    // trigram → posting list; open addressing, null value = free slot
+    private long[]        gramKeys  = new long[1024];
+    private PostingList[] gramLists = new PostingList[1024];
+    private int           gramCount;
+
+    // Scratch for the trigrams of one name (callers hold the inventory lock)
+    private long[] scratch = new long[64];
+
+    void add(int id, String name) {
+        int n = grams(name);
+        for (int i = 0; i < n; i++) listFor(scratch[i]).add(id);
+    }
+
+    void remove(int id, String name) {
+        int n = grams(name);
+        for (int i = 0; i < n; i++) {
+            int slot = find(scratch[i]);
+            if (slot >= 0) gramLists[slot].remove(id);    // empty lists stay: a removal never reshuffles the table
+        }
+    }
+
+    // Ids (ascending) of products whose name MAY contain keyword;
+    // keyword must be lower-case and at least GRAM characters long
+    int[] candidates(String keyword) {
+        int n = grams(keyword);
+        List<PostingList> lists = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int slot = find(scratch[i]);
+            if (slot < 0 || gramLists[slot].size == 0) return new int[0];   // a trigram nobody has
+            lists.add(gramLists[slot]);
+        }
+        lists.sort(Comparator.comparingInt(l -> l.size));
+
+        int[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        int   count  = result.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            count = intersect(result, count, lists.get(i));
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Keeps the ids in result[0..count) that also appear in list; the
+    // list is usually much longer, so probe it by binary search
+    private static int intersect(int[] result, int count, PostingList list) {
+        int kept = 0, from = 0;
+        for (int i = 0; i < count; i++) {
+            int at = Arrays.binarySearch(list.ids, from, list.size, result[i]);
+            if (at >= 0) {
+                result[kept++] = result[i];
+                from = at + 1;
+            } else {
+                from = -at - 1;
+            }
+        }
+        return kept;
+    }
+
+    // Distinct trigrams of a lower-cased string into scratch[0..n).
+    // Three chars are packed into a long, then multiplied by an odd
+    // constant (a one-to-one mix) so the table's slots spread well
+    private int grams(String lower) {
+        int windows = Math.max(0, lower.length() - GRAM + 1);
+        if (windows > scratch.length) scratch = new long[Math.max(windows, scratch.length * 2)];
+        for (int i = 0; i < windows; i++) {
+            long packed = ((long) lower.charAt(i) << 32) | ((long) lower.charAt(i + 1) << 16) | lower.charAt(i + 2);
+            scratch[i] = packed * 0x9E37_79B9_7F4A_7C15L;
+        }
+        Arrays.sort(scratch, 0, windows);
+        int n = 0;
+        for (int i = 0; i < windows; i++) {
+            if (n == 0 || scratch[n - 1] != scratch[i]) scratch[n++] = scratch[i];
+        }
+        return n;
+    }
+
+    private int find(long gram) {
+        int mask = gramKeys.length - 1;
+        for (int slot = (int) (gram >>> 40) & mask; gramLists[slot] != null; slot = (slot + 1) & mask) {
+            if (gramKeys[slot] == gram) return slot;
+        }
+        return -1;
+    }
+
+    private PostingList listFor(long gram) {
+        int mask = gramKeys.length - 1;
+        int slot = (int) (gram >>> 40) & mask;
+        for (; gramLists[slot] != null; slot = (slot + 1) & mask) {
+            if (gramKeys[slot] == gram) return gramLists[slot];
+        }
+        PostingList list = new PostingList();
+        gramKeys[slot]  = gram;
+        gramLists[slot] = list;
+        if (++gramCount * 2 > gramKeys.length) grow();      // keep at most half full
+        return list;
+    }
+
+    private void grow() {
+        long[]        oldKeys  = gramKeys;
+        PostingList[] oldLists = gramLists;
+        gramKeys  = new long[oldKeys.length * 2];
+        gramLists = new PostingList[oldKeys.length * 2];
+        int mask = gramKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldLists[i] == null) continue;
+            int slot = (int) (oldKeys[i] >>> 40) & mask;
+            while (gramLists[slot] != null) slot = (slot + 1) & mask;
+            gramKeys[slot]  = oldKeys[i];
+            gramLists[slot] = oldLists[i];
+        }
+    }
+}
+
+
+// ═══════════════════════════════════════════════════════════
+//  RANKED INDEX  (sorted view with O(log n) seek by position)
+// ═══════════════════════════════════════════════════════════
+/**
+ *  A treap (binary search tree balanced by random priorities) ordered
+ *  by (key, id), where every node also knows the size of its subtree.
+ *  That lets page(offset, limit) walk straight down to position
+ *  `offset` in O(log n) and then read `limit` products in order –
+ *  instead of copying and sorting the whole catalogue for each page.
+ *
+ *  Keys are kept as a primitive long so most comparisons never leave
+ *  the node: numbers map to an order-preserving long, and strings to
+ *  their first four chars (the full string only breaks prefix ties).
+ *
+ *  Keys must be removed with the SAME value they were inserted with,
+ *  so owners remove before (or with the old value after) a change.
+ */
+class RankedIndex {
+
+    private static final class Node {
+        final long    key;
+        final String  text;          // full string key, or null for numbers
+        final int     id;
+        final Product product;
+        final int     priority;
+        Node left, right;
+        int  size = 1;
+
+        Node(long key, String text, Product product, int priority) {
+            this.key      = key;
+            this.text     = text;
+            this.id       = product.getId();
+            this.product  = product;
+            this.priority = priority;
+        }
+    }
+
+    private Node root;
+    private int  seed = 0x2545F491;
+
+    void insert(String key, Product product) { insert(prefixKey(key), key, product); }
+    void insert(double key, Product product) { insert(doubleKey(key), null, product); }
+    void insert(long key,   Product product) { insert(key, null, product); }
+
+    void remove(String key, int id) { root = remove(root, prefixKey(key), key, id); }
+    void remove(double key, int id) { root = remove(root, doubleKey(key), null, id); }
+    void remove(long key,   int id) { root = remove(root, key, null, id); }
+
+    private void insert(long key, String text, Product product) {
+        root = insert(root, new Node(key, text, product, nextPriority()));
+    }
+
+    int size() { return size(root); }
+
+    // Products at positions [offset, offset + limit) in sorted order
+    List<Product> page(int offset, int limit) {
+        List<Product> result = new ArrayList<>(Math.max(0, Math.min(limit, size() - offset)));
+        Deque<Node> path = new ArrayDeque<>();
+        Node t = root;
+        int skip = offset;
+        while (t != null) {                                // descend to position `offset`
+            int leftSize = size(t.left);
+            if (skip < leftSize)       { path.push(t); t = t.left; }
+            else if (skip == leftSize) { path.push(t); break; }
+            else                       { skip -= leftSize + 1; t = t.right; }
+        }
+        while (!path.isEmpty() && result.size() < limit) {  // in-order walk from there
+            Node n = path.pop();
+            result.add(n.product);
+            for (Node c = n.right; c != null; c = c.left) path.push(c);
+        }
+        return result;
+    }
+
+    // Plain BST insert, then rotate the new node up while its priority wins
+    private Node insert(Node t, Node node) {
+        if (t == null) return node;
+        if (compare(node.key, node.text, node.id, t) < 0) {
+            t.left = insert(t.left, node);
+            if (t.left.priority > t.priority) return rotateRight(t);
+        } else {
+            t.right = insert(t.right, node);
+            if (t.right.priority > t.priority) return rotateLeft(t);
+        }
+        update(t);
+        return t;
+    }
+
+    private Node remove(Node t, long key, String text, int id) {
+        if (t == null) return null;
+        int c = compare(key, text, id, t);
+        if (c < 0)      t.left  = remove(t.left, key, text, id);
+        else if (c > 0) t.right = remove(t.right, key, text, id);
+        else            return merge(t.left, t.right);
+        update(t);
+        return t;
+    }
+
+    // Every node in a sorts before every node in b
+    private Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static Node rotateRight(Node t) {
+        Node l = t.left;
+        t.left  = l.right;
+        l.right = t;
+        update(t);
+        update(l);
+        return l;
+    }
+
+    private static Node rotateLeft(Node t) {
+        Node r = t.right;
+        t.right = r.left;
+        r.left  = t;
+        update(t);
+        update(r);
+        return r;
+    }
+
+    private static int compare(long key, String text, int id, Node n) {
+        int c = Long.compare(key, n.key);
+        if (c == 0 && text != null) c = text.compareTo(n.text);
+        return c != 0 ? c : Integer.compare(id, n.id);
+    }
+
+    // Same order as Double.compare
+    static long doubleKey(double d) {
+        long bits = Double.doubleToLongBits(d);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    // First four chars, in the same order as String.compareTo
+    static long prefixKey(String s) {
+        long key = 0;
+        for (int i = 0; i < 4; i++) key = (key << 16) | (i < s.length() ? s.charAt(i) : 0);
+        return key ^ Long.MIN_VALUE;                       // unsigned → signed order
+    }
+
+    private static int  size(Node n)   { return n == null ? 0 : n.size; }
+    private static void update(Node n) { n.size = 1 + size(n.left) + size(n.right); }
+
+    private int nextPriority() {                           // xorshift
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+}
+
+
+// ═══════════════════════════════════════════════════════════
+//  INVENTORY SNAPSHOT  (dashboard totals at one instant)
+// ═══════════════════════════════════════════════════════════
+/**
+ *  Immutable copy of the running totals Inventory keeps as products
+ *  change. Taking one costs O(number of categories), never a scan of
+ *  the products. Values are kept in paise internally so millions of
+ *  small updates can't drift the way a running double sum would.
+ */
+final class InventorySnapshot {
+
+    public final int    totalProducts;
+    public final long   totalItems;
+    public final double totalValue;
+    public final int    lowStockCount;
+    public final int    outOfStockCount;
+
+    // Non-empty categories, first seen first
+    private final String[] categories;
+    private final int[]    categoryProducts;
+    private final double[] categoryValues;
+
+    InventorySnapshot(int totalProducts, long totalItems, long totalValuePaise, int lowStockCount,
+                      int outOfStockCount, String[] categories, int[] categoryProducts, long[] categoryValuePaise) {
+        this.totalProducts    = totalProducts;
+        this.totalItems       = totalItems;
+        this.totalValue       = totalValuePaise / 100.0;
+        this.lowStockCount    = lowStockCount;
+        this.outOfStockCount  = outOfStockCount;
+        this.categories       = categories;
+        this.categoryProducts = categoryProducts;
+        this.categoryValues   = new double[categoryValuePaise.length];
+        for (int i = 0; i < categoryValuePaise.length; i++) categoryValues[i] = categoryValuePaise[i] / 100.0;
+    }
+
+    public int    categoryCount()          { return categories.length;  }
+    public String category(int i)          { return categories[i];      }
+    public int    categoryProducts(int i)  { return categoryProducts[i]; }
+    public double categoryValue(int i)     { return categoryValues[i];  }
+}
+
+
+// ═══════════════════════════════════════════════════════════
+//  CATALOGUE IMPORT  (bulk CSV feeds)
+// ═══════════════════════════════════════════════════════════
+/**
+ *  Loads a supplier feed into an Inventory in two steps:
+ *
+ *    1. Parse – the feed is cut into chunks at line breaks and the
+ *       chunks are parsed and validated in parallel (Product.validate
+ *       rules; bad rows are reported, not fatal).
+ *    2. Publish – Inventory.publish adds every good row in one hold of
+ *       its lock, de-duplicating by normalised name (first row wins).
+ *
+ *  Feed format, one record per line, optional header:
+ *      name,category,price,quantity[,lowStockThreshold]
+ *  Fields may be double-quoted ("" inside quotes is a literal quote).
+ */
+final class CatalogueImporter {
+
+    private static final int MAX_FIELDS = 5;
+    private static final int MAX_ERRORS = 20;   // kept per chunk for the report
+
+    private final int threads;
+
+    CatalogueImporter(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be positive");
+        this.threads = threads;
+    }
+
+    public ImportReport importCsv(Path feed, Inventory target) throws IOException {
+        return importCsv(Files.readAllBytes(feed), target);
+    }
+
+    public ImportReport importCsv(byte[] feed, Inventory target) {
+        long start = System.nanoTime();
+        List<Chunk> chunks = parse(feed);
+        long parsed = System.nanoTime();
+        target.publish(chunks);
+        long published = System.nanoTime();
+
+        ImportReport report = new ImportReport(parsed - start, published - parsed);
+        int line = 0;
+        for (Chunk c : chunks) {
+            report.rows       += c.rows + c.rejected;
+            report.imported   += c.imported;
+            report.duplicates += c.duplicates;
+            report.rejected   += c.rejected;
+            for (int i = 0; i < c.errorLines.size() && report.errors.size() < MAX_ERRORS; i++) {
+                report.errors.add("line " + (line + c.errorLines.get(i)) + ": " + c.errorMessages.get(i));
+            }
+            line += c.lines;
+        }
+        return report;
+    }
+
+    // ── Parsing ───────────────────────────────────────────────
+
+    private List<Chunk> parse(byte[] feed) {
+        int count = Math.max(1, Math.min(threads * 4, feed.length / 4096));
+        List<Chunk> chunks = new ArrayList<>(count);
+        int from = 0;
+        for (int i = 1; i <= count && from < feed.length; i++) {
+            int to = i == count ? feed.length : Math.max(from + 1, (int) ((long) feed.length * i / count));
+            while (to < feed.length && feed[to - 1] != '\n') to++;     // end on a line break
+            chunks.add(new Chunk(feed, from, to, chunks.isEmpty()));
+            from = to;
+        }
+        if (threads == 1 || chunks.size() == 1) {
+            for (Chunk c : chunks) c.call();
+            return chunks;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<Chunk> f : pool.invokeAll(chunks)) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Import failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return chunks;
+    }
+
+    /** One slice of the feed: parsed rows (struct-of-arrays) and rejects. */
+    static final class Chunk implements Callable<Chunk> {
+        private final byte[]  feed;
+        private final int     from, to;
+        private final boolean first;           // may start with the header
+
+        int      rows, lines, rejected;
+        int      imported, duplicates;          // filled in by Inventory.publish
+        String[] names, categories, keys;
+        double[] prices;
+        int[]    quantities, thresholds;        // threshold -1 = default
+        final List<Integer> errorLines    = new ArrayList<>();
+        final List<String>  errorMessages = new ArrayList<>();
+
+        // Field bounds of the line being parsed
+        private final int[]     fieldStart = new int[MAX_FIELDS];
+        private final int[]     fieldEnd   = new int[MAX_FIELDS];
+        private final boolean[] escaped    = new boolean[MAX_FIELDS];   // quoted with "" inside
+
+        Chunk(byte[] feed, int from, int to, boolean first) {
+            this.feed  = feed;
+            this.from  = from;
+            this.to    = to;
+            this.first = first;
+            int guess  = Math.max(16, (to - from) / 32);
+            names      = new String[guess];
+            categories = new String[guess];
+            keys       = new String[guess];
+            prices     = new double[guess];
+            quantities = new int[guess];
+            thresholds = new int[guess];
+        }
+
+        @Override
+        public Chunk call() {
+            int pos = from;
+            while (pos < to) {
+                int end = pos;
+                while (end < to && feed[end] != '\n') end++;
+                int next = end + 1;
+                if (end > pos && feed[end - 1] == '\r') end--;
+                lines++;
+                if (end > pos && !(first && lines == 1 && isHeader(pos, end))) parseLine(pos, end);
+                pos = next;
+            }
+            return this;
+        }
+
+        // First field is literally "name"
+        private boolean isHeader(int from, int end) {
+            return end - from >= 4 && (end - from == 4 || feed[from + 4] == ',')
+                    && new String(feed, from, 4, StandardCharsets.US_ASCII).equalsIgnoreCase("name");
+        }
+
+        private void parseLine(int pos, int end) {
+            int fields = 0;
+            while (true) {
+                if (fields == MAX_FIELDS) { reject("more than " + MAX_FIELDS + " fields"); return; }
+                escaped[fields] = false;
+                if (pos < end && feed[pos] == '"') {
+                    int s = ++pos;
+                    while (true) {
+                        if (pos >= end) { reject("unterminated quote"); return; }
+                        if (feed[pos] == '"') {
+                            if (pos + 1 < end && feed[pos + 1] == '"') { escaped[fields] = true; pos += 2; continue; }
+                            break;
+                        }
+                        pos++;
+                    }
+                    fieldStart[fields] = s;
+                    fieldEnd[fields]   = pos++;
+                    if (pos < end && feed[pos] != ',') { reject("text after closing quote"); return; }
+                } else {
+                    fieldStart[fields] = pos;
+                    while (pos < end && feed[pos] != ',') pos++;
+                    fieldEnd[fields] = pos;
+                }
+                fields++;
+                if (pos >= end) break;
+                pos++;                                          // skip the comma
+            }
+            if (fields < 4) { reject("expected name,category,price,quantity"); return; }
+
+            try {
+                String name     = text(0);
+                String category = text(1);
+                double price    = parsePrice(fieldStart[2], fieldEnd[2]);
+                int    qty      = parseInt(fieldStart[3], fieldEnd[3], "quantity");
+                int    thresh   = fields == 5 ? parseInt(fieldStart[4], fieldEnd[4], "lowStockThreshold") : -1;
+                Product.validate(name, category, price, qty);
+                if (fields == 5 && thresh < 0)
+                    throw new InvalidProductDataException("lowStockThreshold", "cannot be negative (got " + thresh + ")");
+                add(name, category, price, qty, thresh);
+            } catch (InvalidProductDataException e) {
+                reject(e.getMessage());
+            }
+        }
+
+        private String text(int f) {
+            String t = new String(feed, fieldStart[f], fieldEnd[f] - fieldStart[f], StandardCharsets.UTF_8);
+            return escaped[f] ? t.replace("\"\"", "\"") : t;
+        }
+
+        private int parseInt(int s, int e, String field) {
+            while (s < e && feed[s] == ' ') s++;
+            while (e > s && feed[e - 1] == ' ') e--;
+            boolean negative = s < e && feed[s] == '-';
+            if (negative) s++;
+            if (s == e || e - s > 9) throw new InvalidProductDataException(field, "not a whole number");
+            int v = 0;
+            for (int i = s; i < e; i++) {
+                int d = feed[i] - '0';
+                if (d < 0 || d > 9) throw new InvalidProductDataException(field, "not a whole number");
+                v = v * 10 + d;
+            }
+            return negative ? -v : v;
+        }
+
+        // Plain decimals (up to 15 digits) are exact as mantissa / 10^scale;
+        // anything else goes through Double.parseDouble
+        private double parsePrice(int s, int e) {
+            while (s < e && feed[s] == ' ') s++;
+            while (e > s && feed[e - 1] == ' ') e--;
+            int i = s;
+            boolean negative = i < e && feed[i] == '-';
+            if (negative) i++;
+            long mantissa = 0;
+            int digits = 0, scale = -1;
+            for (; i < e; i++) {
+                byte b = feed[i];
+                if (b == '.' && scale < 0) { scale = 0; continue; }
+                if (b < '0' || b > '9' || digits == 15) return parsePriceSlow(s, e);
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (scale >= 0) scale++;
+            }
+            if (digits == 0) throw new InvalidProductDataException("price", "not a number");
+            double v = scale > 0 ? mantissa / POW10[scale] : mantissa;
+            return negative ? -v : v;
+        }
+
+        // Exponents, '+' signs and long mantissas. Double.parseDouble also
+        // takes NaN, Infinity and 1e400 (as Infinity); none is a price
+        private double parsePriceSlow(int s, int e) {
+            double v;
+            try {
+                v = Double.parseDouble(new String(feed, s, e - s, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException ex) {
+                throw new InvalidProductDataException("price", "not a number");
+            }
+            if (!Double.isFinite(v)) throw new InvalidProductDataException("price", "not a finite number");
+            return v;
+        }
+
+        private void add(String name, String category, double price, int qty, int threshold) {
+            if (rows == names.length) {
+                int n = rows * 2;
+                names      = Arrays.copyOf(names, n);
+                categories = Arrays.copyOf(categories, n);
+                keys       = Arrays.copyOf(keys, n);
+                prices     = Arrays.copyOf(prices, n);
+                quantities = Arrays.copyOf(quantities, n);
+                thresholds = Arrays.copyOf(thresholds, n);
+            }
+            names[rows]      = name;
+            categories[rows] = category;
+            keys[rows]       = Inventory.nameKey(name);
+            prices[rows]     = price;
+            quantities[rows] = qty;
+            thresholds[rows] = threshold;
+            rows++;
+        }
+
+        private void reject(String message) {
+            rejected++;
+            if (errorLines.size() < MAX_ERRORS) {
+                errorLines.add(lines);
+                errorMessages.add(message);
+            }
+        }
+    }
+
+    private static final double[] POW10 = new double[16];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+}
+
+/** Outcome of one CatalogueImporter run. */
+final class ImportReport {
+    int rows, imported, duplicates, rejected;
+    final List<String> errors = new ArrayList<>();     // first few, with line numbers
+    private final long parseNanos, publishNanos;
+
+    ImportReport(long parseNanos, long publishNanos) {
+        this.parseNanos   = parseNanos;
+        this.publishNanos = publishNanos;
+    }
+
+    public int  getRows()       { return rows;       }
+    public int  getImported()   { return imported;   }
+    public int  getDuplicates() { return duplicates; }
+    public int  getRejected()   { return rejected;   }
+    public List<String> getErrors() { return Collections.unmodifiableList(errors); }
+    public double rowsPerSecond() { return rows * 1e9 / Math.max(1, parseNanos + publishNanos); }
+
+    @Override
+    public String toString() {
+        return String.format("%,d rows → %,d imported, %,d duplicate, %,d rejected | parse %,d ms + publish %,d ms (%,.0f rows/sec)",
+                rows, imported, duplicates, rejected, parseNanos / 1_000_000, publishNanos / 1_000_000, rowsPerSecond());
+    }
+}
+
+
+// ═══════════════════════════════════════════════════════════
+//  TABLE RENDERER  (fixed-width reports without String.format)
+// ═══════════════════════════════════════════════════════════
+/**
+ *  Writes fixed-width rows straight into a pooled char buffer and
+ *  hands the buffer to the output only when it is full, so a report
+ *  costs one write per CHUNK characters instead of one per row.
+ *
+ *  Column layouts are parsed once from the same printf-style pattern
+ *  the row would have used (%-6d, %8.2f, %-22s ...), so the output is
+ *  character-for-character what String.format(Locale.ROOT, ...) gives.
+ *  Numbers are formatted by hand; the rare double that sits on a
+ *  rounding tie is passed to the Formatter to settle.
+ *
+ *  Usage:  try (TableRenderer out = new TableRenderer(System.out)) {
+ *              out.row(LAYOUT).cell(id).cell(name).cell(price).endRow();
+ *          }
+ */
+final class TableRenderer implements AutoCloseable {
+
+    /** A parsed row pattern: literal text around each column. */
+    static final class Layout {
+        final String    pattern;
+        final char[][]  literals;     // before column i; the last one ends the row (+ line separator)
+        final char[]    conversion;   // 'd', 'f' or 's'
+        final int[]     width;
+        final int[]     precision;
+        final boolean[] leftAlign;
+
+        private Layout(String pattern, List<String> literals, List<int[]> columns) {
+            this.pattern    = pattern;
+            int n = columns.size();
+            this.literals = new char[n + 1][];
+            for (int i = 0; i < n; i++) this.literals[i] = literals.get(i).toCharArray();
+            this.literals[n] = (literals.get(n) + System.lineSeparator()).toCharArray();
+            conversion = new char[n];
+            width      = new int[n];
+            precision  = new int[n];
+            leftAlign  = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                int[] c = columns.get(i);
+                conversion[i] = (char) c[0];
+                width[i]      = c[1];
+                precision[i]  = c[2];
+                leftAlign[i]  = c[3] == 1;
+            }
+        }
+
+        /** Understands %[-][width][.precision](d|f|s), %% and %n. */
+        static Layout parse(String pattern) {
+            List<String> literals = new ArrayList<>();
+            List<int[]>  columns  = new ArrayList<>();
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c != '%') { text.append(c); continue; }
+                if (++i == pattern.length()) throw new IllegalArgumentException("Dangling % in " + pattern);
+                c = pattern.charAt(i);
+                if (c == '%') { text.append('%'); continue; }
+                if (c == 'n') { text.append(System.lineSeparator()); continue; }
+                int left = 0, width = 0, precision = -1;
+                if (c == '-') { left = 1; c = pattern.charAt(++i); }
+                while (c >= '0' && c <= '9') { width = width * 10 + (c - '0'); c = pattern.charAt(++i); }
+                if (c == '.') {
+                    precision = 0;
+                    c = pattern.charAt(++i);
+                    while (c >= '0' && c <= '9') { precision = precision * 10 + (c - '0'); c = pattern.charAt(++i); }
+                }
+                if (c != 'd' && c != 'f' && c != 's')
+                    throw new IllegalArgumentException("Unsupported conversion %" + c + " in " + pattern);
+                if (c == 'f' && precision < 0) precision = 6;
+                literals.add(text.toString());
+                text.setLength(0);
+                columns.add(new int[] { c, width, precision, left });
+            }
+            literals.add(text.toString());
+            return new Layout(pattern, literals, columns);
+        }
+
+        int columns() { return conversion.length; }
+    }
+
+    static final int CHUNK = 64 * 1024;     // chars per write
+
+    // Spare chunk buffers, returned by close()
+    private static final Queue<char[]> POOL = new ConcurrentLinkedQueue<>();
+
+    private final Appendable          text;       // exactly one of text / channel
+    private final WritableByteChannel channel;
+    private final CharsetEncoder      encoder;
+    private final ByteBuffer          bytes;
+
+    private char[]     buf;
+    private CharBuffer view;
+    private int        used;
+    private final char[] digits = new char[24];
+
+    private Layout row;            // layout of the row being written (null = none)
+    private int    column;
+
+    /** Writes to a PrintStream, Writer or StringBuilder in CHUNK-sized pieces. */
+    TableRenderer(Appendable out) {
+        this.text    = Objects.requireNonNull(out);
+        this.channel = null;
+        this.encoder = null;
+        this.bytes   = null;
+        borrow();
+    }
+
+    /** Encodes to a channel (e.g. a FileChannel) through one reused byte buffer. */
+    TableRenderer(WritableByteChannel out, Charset charset) {
+        this.text    = null;
+        this.channel = Objects.requireNonNull(out);
+        this.encoder = charset.newEncoder();
+        this.bytes   = ByteBuffer.allocate((int) (CHUNK * encoder.maxBytesPerChar()));    // heap: lets the encoder take its array fast path
+        borrow();
+    }
+
+    private void borrow() {
+        char[] pooled = POOL.poll();
+        buf  = pooled != null ? pooled : new char[CHUNK];
+        view = CharBuffer.wrap(buf);
+    }
+
+    // ── Rows ──────────────────────────────────────────────────
+
+    public TableRenderer row(Layout layout) {
+        if (row != null) throw new IllegalStateException("Row not finished: " + row.pattern);
+        row    = layout;
+        column = 0;
+        append(layout.literals[0]);
+        return this;
+    }
+
+    public TableRenderer cell(long value) {
+        int w = expect('d');
+        if (value == Long.MIN_VALUE) return pad(Long.toString(value), w);
+        int len = writeDigits(Math.abs(value), digits.length, 1);
+        if (value < 0) digits[digits.length - ++len] = '-';
+        return padDigits(len, w);
+    }
+
+    public TableRenderer cell(double value) {
+        int w = expect('f');
+        int p = row.precision[column];
+        double scaled = Math.abs(value) * POW10[Math.min(p, POW10.length - 1)];
+        long   units  = (long) scaled;
+        double frac   = scaled - units;
+        if (p >= POW10.length || !(scaled < 1e12) || Math.abs(frac - 0.5) < 1e-3) {
+            return pad(String.format(Locale.ROOT, "%." + p + "f", value), w);   // huge, NaN, or a tie
+        }
+        if (frac > 0.5) units++;
+        long scale = (long) POW10[p];
+        int len = 0;
+        if (p > 0) {
+            len = writeDigits(units % scale, digits.length, p);       // fraction, zero-padded
+            digits[digits.length - ++len] = '.';
+        }
+        len += writeDigits(units / scale, digits.length - len, 1);
+        if (Double.doubleToRawLongBits(value) < 0) digits[digits.length - ++len] = '-';   // as Formatter: -0.00
+        return padDigits(len, w);
+    }
+
+    public TableRenderer cell(String value) {
+        return pad(value == null ? "null" : value, expect('s'));
+    }
+
+    public void endRow() {
+        if (row == null || column != row.columns())
+            throw new IllegalStateException("Row is missing cells: " + (row == null ? "no row" : row.pattern));
+        append(row.literals[column]);
+        row = null;
+    }
+
+    /** A whole line of plain text (headings, rules). */
+    public TableRenderer line(String s) {
+        if (row != null) throw new IllegalStateException("Row not finished: " + row.pattern);
+        append(s);
+        append(System.lineSeparator());
+        return this;
+    }
+
+    // Checks the next column takes this conversion; returns its width
+    private int expect(char conversion) {
+        if (row == null || column == row.columns())
+            throw new IllegalStateException("No open column for %" + conversion);
+        if (row.conversion[column] != conversion)
+            throw new IllegalArgumentException("Column " + column + " of '" + row.pattern
+                    + "' is %" + row.conversion[column] + ", not %" + conversion);
+        return row.width[column];
+    }
+
+    // Digits of v, least significant first, ending at digits[end); at least minDigits
+    private int writeDigits(long v, int end, int minDigits) {
+        int len = 0;
+        if (v <= Integer.MAX_VALUE) {                       // int division is much cheaper
+            int i = (int) v;
+            do {
+                digits[end - ++len] = (char) ('0' + i % 10);
+                i /= 10;
+            } while (i > 0 || len < minDigits);
+            return len;
+        }
+        do {
+            digits[end - ++len] = (char) ('0' + v % 10);
+            v /= 10;
+        } while (v > 0 || len < minDigits);
+        return len;
+    }
+
+    private TableRenderer padDigits(int len, int width) {
+        boolean left = row.leftAlign[column];
+        if (!left) spaces(width - len);
+        ensure(len);
+        System.arraycopy(digits, digits.length - len, buf, used, len);
+        used += len;
+        if (left) spaces(width - len);
+        return nextColumn();
+    }
+
+    private TableRenderer pad(String s, int width) {
+        boolean left = row.leftAlign[column];
+        if (!left) spaces(width - s.length());
+        append(s);
+        if (left) spaces(width - s.length());
+        return nextColumn();
+    }
+
+    private TableRenderer nextColumn() {
+        column++;
+        if (column < row.columns()) append(row.literals[column]);
+        return this;
+    }
+
+    // ── Buffer ────────────────────────────────────────────────
+
+    private void spaces(int n) {
+        if (n <= 0) return;
+        ensure(n);
+        Arrays.fill(buf, used, used + n, ' ');
+        used += n;
+    }
+
+    private void append(char[] s) {
+        if (buf.length - used < s.length) flushBuffer();
+        if (s.length > buf.length) { append(new String(s)); return; }
+        System.arraycopy(s, 0, buf, used, s.length);
+        used += s.length;
+    }
+
+    private void append(String s) {
+        int from = 0, len = s.length();
+        if (len <= buf.length - used) {                         // usual case: fits
+            s.getChars(0, len, buf, used);
+            used += len;
+            return;
+        }
+        while (from < len) {
+            if (used == buf.length) flushBuffer();
+            int n = Math.min(len - from, buf.length - used);
+            s.getChars(from, from + n, buf, used);
+            used += n;
+            from += n;
+        }
+    }
+
+    private void ensure(int n) {
+        if (buf.length - used < n) flushBuffer();
+    }
+
+    private void flushBuffer() {
+        if (used == 0) return;
+        view.clear().limit(used);
+        try {
+            if (text != null) {
+                text.append(view);
+            } else {
+                encoder.reset();
+                CoderResult r;
+                do {
+                    r = encoder.encode(view, bytes, true);
+                    if (r.isError()) r.throwException();
+                    drain();
+                } while (r.isOverflow());
+                encoder.flush(bytes);
+                drain();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write report", e);
+        }
+        used = 0;
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) channel.write(bytes);
+        bytes.clear();
+    }
+
+    /** Writes out whatever is buffered. */
+    public void flush() {
+        flushBuffer();
+        if (text instanceof Flushable) {
+            try { ((Flushable) text).flush(); } catch (IOException e) { throw new UncheckedIOException(e); }
+        }
+    }
+
+    /** Flushes and returns the buffer to the pool; the output itself stays open. */
+    @Override
+    public void close() {
+        if (buf == null) return;
+        flush();
+        POOL.offer(buf);
+        buf  = null;
+        view = null;
+    }
+
+    private static final double[] POW10 = { 1, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6 };
+}
+
+
 // ═══════════════════════════════════════════════════════════
 //  INVENTORY  (manages the product collection)
 // ═══════════════════════════════════════════════════════════
 class Inventory {
 
-    // Primary store: id → Product  (HashMap for O(1) access)
+    // Primary store: id → Product  (insertion order; guarded by lock)
+    // Ids rise with insertion order for adds from one thread; threads
+    // adding concurrently draw from separate id blocks.
     private final Map<Integer, Product> store = new LinkedHashMap<>();
 
+    // Same products, for lock-free lookups on the hot stock paths
+    private final Map<Integer, Product> byId = new ConcurrentHashMap<>();
+
+    // Normalized name → Product, for the O(1) duplicate check
+    private final Map<String, Product> byName = new HashMap<>();
+
+    // Trigram → product ids, for substring search by name
+    private final TrigramIndex nameGrams = new TrigramIndex();
+
+    // Category dictionary: each distinct category gets a small int code
+    // (first seen = 0, 1, 2 …) and a bucket of the products in it
+    private final Map<String, Integer>       categoryCodes   = new HashMap<>();
+    private final List<String>               categoryNames   = new ArrayList<>();
+    private final List<Map<Integer, Product>> categoryBuckets = new ArrayList<>();
+
+    // Products that are low / out of stock – by id, and by shortfall
+    // (threshold − quantity, packed with the id into one sortable key)
+    private final NavigableMap<Integer, Product> lowStock            = new TreeMap<>();
+    private final NavigableMap<Long, Product>    lowStockByShortfall = new TreeMap<>();
+    private final List<StockAlertListener>       alertListeners      = new ArrayList<>();
+
+    // Sorted views for getAllSorted / page / topK. Each is built the
+    // first time it is asked for (null until then) and kept up to date
+    // afterwards. "value" is highest first, so its key is negated.
+    private RankedIndex sortedByName, sortedByPrice, sortedByQuantity, sortedByValue;
+
+    // Running totals behind snapshot() – adjusted on every change, by
+    // the same code paths that keep the indexes (values in paise)
+    private long   totalItems;
+    private long   totalValuePaise;
+    private int    lowStockCount;
+    private int    outOfStockCount;
+    private long[] categoryValuePaise = new long[8];   // by category code
+
+    // ── Concurrency ───────────────────────────────────────────
+    // Stock moves (adjust, reserve, commit, release) are a CAS on the
+    // product – no lock. The product is then queued, and whichever
+    // thread next holds the lock re-indexes the queued products (one
+    // thread catches up for everyone). Everything else – adds, removes,
+    // searches, reports – holds the lock, and starts by catching up,
+    // so it always sees every stock move made before it.
+    // Stock alert listeners run on that catching-up thread, under the lock.
+    private final ReentrantLock  lock         = new ReentrantLock();
+    private final Queue<Product> stockChanged = new ConcurrentLinkedQueue<>();
+
+    // Reservation id → (product id << 32 | quantity)
+    private final Map<Long, Long> reservations    = new ConcurrentHashMap<>();
+    private final AtomicLong      nextReservation = new AtomicLong(1);
+
+    public static final long NO_RESERVATION = -1;
+
+    private void lock() {
+        lock.lock();
+        applyStockChanges();
+    }
+
+    private void unlock() {
+        lock.unlock();
+        catchUpIfFree();
+    }
+
     // ── CRUD ──────────────────────────────────────────────────
 
     public Product addProduct(String name, String category, double price, int qty)
             throws DuplicateProductException {
-        // Check for duplicate name (case-insensitive)
-        for (Product p : store.values()) {
-            if (p.getName().equalsIgnoreCase(name.trim())) {
+        lock();
+        try {
+            // Check for duplicate name (case-insensitive)
+            if (name != null && byName.containsKey(nameKey(name))) {
                 throw new DuplicateProductException(name);
             }
+            Product p = new Product(name, category, price, qty);
+            index(p);
+            return p;
+        } finally {
+            unlock();
         }
-        Product p = new Product(name, category, price, qty);
+    }
+
+    // Bulk load for CatalogueImporter: every row goes in during one hold
+    // of the lock, so no search, listing or summary sees half an import.
+    // Rows whose name is taken – in the store or earlier in the feed –
+    // are counted as duplicates and skipped.
+    void publish(List<CatalogueImporter.Chunk> chunks) {
+        lock();
+        try {
+            for (CatalogueImporter.Chunk c : chunks) {
+                for (int i = 0; i < c.rows; i++) {
+                    if (byName.containsKey(c.keys[i])) { c.duplicates++; continue; }
+                    Product p = new Product(c.names[i], c.categories[i], c.prices[i], c.quantities[i]);
+                    if (c.thresholds[i] >= 0) p.setLowStockThreshold(c.thresholds[i]);
+                    index(p);
+                    c.imported++;
+                }
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    // Enters a new product into the store and every index. Caller holds the lock.
+    private void index(Product p) {
+        p.setIndexedStock(p.getQuantity(), p.getLowStockThreshold());
         store.put(p.getId(), p);
-        return p;
+        byId.put(p.getId(), p);
+        byName.put(nameKey(p.getName()), p);
+        nameGrams.add(p.getId(), p.getName().toLowerCase());
+        addToCategory(p, p.getCategory());
+        if (p.needsRestock()) markLow(p);
+        addToSortedViews(p);
+        addToTotals(p, p.getPrice(), p.getQuantity(), p.getLowStockThreshold(), +1);
+        p.setOwner(this);
     }
 
+    // Case-insensitive key, matching the old equalsIgnoreCase check
+    static String nameKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Product.setName lands here
+    void applyRename(Product p, String newName) {
+        lock();
+        try {
+            if (p.getOwner() != this) { p.assignName(newName); return; }   // removed meanwhile
+            String oldName = p.getName();
+            String oldKey = nameKey(oldName), newKey = nameKey(newName);
+            if (!oldKey.equals(newKey)) {                   // not just a change of case
+                Product holder = byName.get(newKey);
+                if (holder != null && holder != p)
+                    throw new InvalidProductDataException("name", "'" + newName + "' is already used by ID " + holder.getId());
+                byName.remove(oldKey);
+                byName.put(newKey, p);
+                nameGrams.remove(p.getId(), oldName.toLowerCase());
+                nameGrams.add(p.getId(), newName.toLowerCase());
+            }
+            if (sortedByName != null) {                     // name order is case-sensitive
+                sortedByName.remove(oldName, p.getId());
+                sortedByName.insert(newName, p);
+            }
+            p.assignName(newName);
+        } finally {
+            unlock();
+        }
+    }
+
+    // Product.setPrice lands here
+    void applyPrice(Product p, double newPrice) {
+        lock();
+        try {
+            if (p.getOwner() != this) { p.assignPrice(newPrice); return; }
+            double oldPrice = p.getPrice();
+            int    qty      = p.getIndexedQuantity();
+            addToTotals(p, oldPrice, qty, p.getIndexedThreshold(), -1);
+            addToTotals(p, newPrice, qty, p.getIndexedThreshold(), +1);
+            if (sortedByPrice != null) {
+                sortedByPrice.remove(oldPrice, p.getId());
+                sortedByPrice.insert(newPrice, p);
+            }
+            if (sortedByValue != null) {
+                sortedByValue.remove(-(oldPrice * qty), p.getId());
+                sortedByValue.insert(-(newPrice * qty), p);
+            }
+            p.assignPrice(newPrice);
+        } finally {
+            unlock();
+        }
+    }
+
+    // Product.setCategory lands here
+    void applyCategory(Product p, String newCategory) {
+        lock();
+        try {
+            if (p.getOwner() == this) {
+                addToTotals(p, p.getPrice(), p.getIndexedQuantity(), p.getIndexedThreshold(), -1);
+                categoryBuckets.get(p.getCategoryCode()).remove(p.getId());
+                addToCategory(p, newCategory);
+                addToTotals(p, p.getPrice(), p.getIndexedQuantity(), p.getIndexedThreshold(), +1);
+            }
+            p.assignCategory(newCategory);
+        } finally {
+            unlock();
+        }
+    }
+
+    // Lock-free
     public Product getById(int id) throws ProductNotFoundException {
-        Product p = store.get(id);
+        Product p = byId.get(id);
         if (p == null) throw new ProductNotFoundException("ID " + id);
         return p;
     }
 
     public void removeProduct(int id) throws ProductNotFoundException {
-        if (store.remove(id) == null) throw new ProductNotFoundException("ID " + id);
+        lock();
+        try {
+            Product p = store.remove(id);
+            if (p == null) throw new ProductNotFoundException("ID " + id);
+            byId.remove(id);
+            addToTotals(p, p.getPrice(), p.getIndexedQuantity(), p.getIndexedThreshold(), -1);
+            byName.remove(nameKey(p.getName()));
+            nameGrams.remove(id, p.getName().toLowerCase());
+            categoryBuckets.get(p.getCategoryCode()).remove(id);
+            p.setCategoryCode(-1);
+            int qty = p.getIndexedQuantity();
+            if (lowStock.remove(id) != null) {
+                lowStockByShortfall.remove(shortfallKey(p.getIndexedThreshold() - qty, id));
+            }
+            if (sortedByName     != null) sortedByName.remove(p.getName(), id);
+            if (sortedByPrice    != null) sortedByPrice.remove(p.getPrice(), id);
+            if (sortedByQuantity != null) sortedByQuantity.remove(qty, id);
+            if (sortedByValue    != null) sortedByValue.remove(-(p.getPrice() * qty), id);
+            p.setOwner(null);
+        } finally {
+            unlock();
+        }
+    }
+
+    // Caller holds the lock
+    private void addToCategory(Product p, String category) {
+        Integer code = categoryCodes.get(category);
+        if (code == null) {
+            code = categoryNames.size();
+            categoryCodes.put(category, code);
+            categoryNames.add(category);
+            categoryBuckets.add(new LinkedHashMap<>());
+            if (code == categoryValuePaise.length) categoryValuePaise = Arrays.copyOf(categoryValuePaise, code * 2);
+        }
+        p.setCategoryCode(code);
+        categoryBuckets.get(code).put(p.getId(), p);
+    }
+
+    // Adds (sign = +1) or takes back (sign = -1) one product's share of
+    // the running totals, for the given price / stock. Caller holds the lock.
+    private void addToTotals(Product p, double price, int qty, int threshold, int sign) {
+        long valuePaise = Math.round(price * 100) * qty;
+        totalItems      += sign * (long) qty;
+        totalValuePaise += sign * valuePaise;
+        categoryValuePaise[p.getCategoryCode()] += sign * valuePaise;
+        if (qty == 0)              outOfStockCount += sign;
+        else if (qty <= threshold) lowStockCount   += sign;
+    }
+
+    // Dashboard totals – O(categories), no product is visited
+    public InventorySnapshot snapshot() {
+        lock();
+        try {
+            int nonEmpty = 0;
+            for (Map<Integer, Product> bucket : categoryBuckets) if (!bucket.isEmpty()) nonEmpty++;
+            String[] names  = new String[nonEmpty];
+            int[]    counts = new int[nonEmpty];
+            long[]   values = new long[nonEmpty];
+            for (int code = 0, i = 0; code < categoryNames.size(); code++) {
+                if (categoryBuckets.get(code).isEmpty()) continue;
+                names[i]  = categoryNames.get(code);
+                counts[i] = categoryBuckets.get(code).size();
+                values[i] = categoryValuePaise[code];
+                i++;
+            }
+            return new InventorySnapshot(store.size(), totalItems, totalValuePaise,
+                    lowStockCount, outOfStockCount, names, counts, values);
+        } finally {
+            unlock();
+        }
+    }
+
+    // ── Stock moves: queue now, re-index when the lock is free ──
+
+    // Called by Product after its quantity or threshold changed
+    void onStockMoved(Product p) {
+        if (p.markStockDirty()) stockChanged.add(p);
+        catchUpIfFree();
+    }
+
+    // Never waits: if another thread holds the lock, it will catch up
+    // on its way out (see unlock)
+    private void catchUpIfFree() {
+        while (!stockChanged.isEmpty() && lock.tryLock()) {
+            try {
+                applyStockChanges();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Caller holds the lock
+    private void applyStockChanges() {
+        Product p;
+        while ((p = stockChanged.poll()) != null) {
+            p.clearStockDirty();                       // a later move queues it again
+            if (p.getOwner() == this) reindexStock(p);
+        }
+    }
+
+    // Moves p in the stock-dependent indexes from the quantity/threshold
+    // they last saw to the current ones. Caller holds the lock.
+    private void reindexStock(Product p) {
+        int oldQty = p.getIndexedQuantity(), oldThreshold = p.getIndexedThreshold();
+        int qty    = p.getQuantity(),        threshold    = p.getLowStockThreshold();
+        p.setIndexedStock(qty, threshold);
+        addToTotals(p, p.getPrice(), oldQty, oldThreshold, -1);
+        addToTotals(p, p.getPrice(), qty, threshold, +1);
+        if (oldQty != qty && sortedByQuantity != null) {
+            sortedByQuantity.remove(oldQty, p.getId());
+            sortedByQuantity.insert(qty, p);
+        }
+        if (oldQty != qty && sortedByValue != null) {
+            sortedByValue.remove(-(p.getPrice() * oldQty), p.getId());
+            sortedByValue.insert(-(p.getPrice() * qty), p);
+        }
+        boolean wasLow = Product.needsRestock(oldQty, oldThreshold);
+        boolean isLow  = Product.needsRestock(qty, threshold);
+        if (wasLow) lowStockByShortfall.remove(shortfallKey(oldThreshold - oldQty, p.getId()));
+        if (isLow)  lowStockByShortfall.put(shortfallKey(threshold - qty, p.getId()), p);
+        if (wasLow != isLow) {
+            if (isLow) lowStock.put(p.getId(), p);
+            else       lowStock.remove(p.getId());
+            for (StockAlertListener l : alertListeners) l.onStockAlert(p, isLow);
+        }
+    }
+
+    // A product that arrives already low counts as a crossing too
+    private void markLow(Product p) {
+        lowStock.put(p.getId(), p);
+        lowStockByShortfall.put(shortfallKey(p.getIndexedThreshold() - p.getIndexedQuantity(), p.getId()), p);
+        for (StockAlertListener l : alertListeners) l.onStockAlert(p, true);
+    }
+
+    // Signed shortfall in the high half, id in the low half: ascending
+    // keys = smallest shortfall first, ties broken by id
+    private static long shortfallKey(int shortfall, int id) {
+        return ((long) shortfall << 32) | (id & 0xFFFF_FFFFL);
+    }
+
+    public void addStockAlertListener(StockAlertListener listener) {
+        lock();
+        try {
+            alertListeners.add(listener);
+        } finally {
+            unlock();
+        }
+    }
+
+    public void renameProduct(int id, String newName)
+            throws ProductNotFoundException, DuplicateProductException {
+        lock();
+        try {
+            Product p = getById(id);
+            if (newName != null && !newName.trim().isEmpty()) {
+                Product holder = byName.get(nameKey(newName));
+                if (holder != null && holder != p) throw new DuplicateProductException(newName);
+            }
+            p.setName(newName);
+        } finally {
+            unlock();
+        }
     }
 
     public void updatePrice(int id, double newPrice) throws ProductNotFoundException {
@@ -183,109 +1751,234 @@ class Inventory {
         getById(id).setQuantity(newQty);
     }
 
+    // Lock-free (CAS on the product's stock)
     public void adjustStock(int id, int delta) throws ProductNotFoundException {
         getById(id).adjustQuantity(delta);
     }
 
+    // ── RESERVATIONS (checkout) ──────────────────────────────
+    //  reserve  – takes qty out of sellable stock right away, or
+    //             returns NO_RESERVATION if that many aren't there
+    //  commit   – the sale went through; the units stay gone
+    //  release  – the sale was abandoned; the units go back
+    //  Each reservation is committed or released at most once.
+
+    public long reserve(int id, int qty) throws ProductNotFoundException {
+        if (qty <= 0) throw new InvalidProductDataException("quantity", "reservation must be positive (got " + qty + ")");
+        Product p = getById(id);
+        if (!p.tryTake(qty)) return NO_RESERVATION;
+        long reservation = nextReservation.getAndIncrement();
+        reservations.put(reservation, ((long) id << 32) | qty);
+        return reservation;
+    }
+
+    public boolean commit(long reservation) {
+        return reservations.remove(reservation) != null;
+    }
+
+    public boolean release(long reservation) {
+        Long held = reservations.remove(reservation);
+        if (held == null) return false;
+        Product p = byId.get((int) (held >>> 32));
+        if (p != null) p.adjustQuantity((int) (held & 0xFFFF_FFFFL));   // (gone if the product was removed)
+        return true;
+    }
+
+    public int pendingReservations() { return reservations.size(); }
+
     // ── SEARCH ───────────────────────────────────────────────
 
+    // Keywords of 3+ characters go through the trigram index; shorter
+    // ones match too many products for an index to help, so they scan
     public List<Product> searchByName(String keyword) {
-        List<Product> results = new ArrayList<>();
-        String kw = keyword.toLowerCase().trim();
-        for (Product p : store.values()) {
-            if (p.getName().toLowerCase().contains(kw)) results.add(p);
+        lock();
+        try {
+            List<Product> results = new ArrayList<>();
+            String kw = keyword.toLowerCase().trim();
+            if (kw.length() < TrigramIndex.GRAM) {
+                for (Product p : store.values()) {
+                    if (p.getName().toLowerCase().contains(kw)) results.add(p);
+                }
+                return results;
+            }
+            for (int id : nameGrams.candidates(kw)) {      // ascending id
+                Product p = store.get(id);
+                if (p.getName().toLowerCase().contains(kw)) results.add(p);
+            }
+            return results;
+        } finally {
+            unlock();
         }
-        return results;
     }
 
+    // Matches the keyword against the (few) distinct categories, then
+    // returns just those buckets – cost follows the result size
     public List<Product> searchByCategory(String category) {
-        List<Product> results = new ArrayList<>();
-        String cat = category.toLowerCase().trim();
-        for (Product p : store.values()) {
-            if (p.getCategory().toLowerCase().contains(cat)) results.add(p);
+        lock();
+        try {
+            List<Product> results = new ArrayList<>();
+            String cat = category.toLowerCase().trim();
+            int matched = 0;
+            for (int code = 0; code < categoryNames.size(); code++) {
+                if (categoryNames.get(code).toLowerCase().contains(cat)) {
+                    Map<Integer, Product> bucket = categoryBuckets.get(code);
+                    if (bucket.isEmpty()) continue;
+                    results.addAll(bucket.values());
+                    matched++;
+                }
+            }
+            if (matched > 1) results.sort(Comparator.comparingInt(Product::getId));   // ascending id, as the trigram path
+            return results;
+        } finally {
+            unlock();
         }
-        return results;
     }
 
+    // Maintained as stock moves – no scan
     public List<Product> getLowStockProducts() {
-        List<Product> results = new ArrayList<>();
-        for (Product p : store.values()) {
-            if (p.isLowStock() || p.isOutOfStock()) results.add(p);
+        lock();
+        try {
+            return new ArrayList<>(lowStock.values());
+        } finally {
+            unlock();
+        }
+    }
+
+    // Same products, furthest below their threshold first
+    public List<Product> getLowStockByShortfall() {
+        lock();
+        try {
+            return new ArrayList<>(lowStockByShortfall.descendingMap().values());
+        } finally {
+            unlock();
         }
-        return results;
     }
 
     public List<Product> getAllSorted(String by) {
-        List<Product> list = new ArrayList<>(store.values());
+        lock();
+        try {
+            RankedIndex index = sortedIndex(by);
+            if (index == null) return new ArrayList<>(store.values());   // insertion order (LinkedHashMap)
+            return index.page(0, index.size());
+        } finally {
+            unlock();
+        }
+    }
+
+    // One page of a sorted view – O(log n + limit), nothing is re-sorted.
+    // Ties keep insertion (id) order, like the old stable sort.
+    public List<Product> page(String by, int offset, int limit) {
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset and limit must be >= 0");
+        lock();
+        try {
+            RankedIndex index = sortedIndex(by);
+            if (index == null) {
+                List<Product> all = new ArrayList<>(store.values());
+                return new ArrayList<>(all.subList(Math.min(offset, all.size()), Math.min(offset + limit, all.size())));
+            }
+            return index.page(offset, limit);
+        } finally {
+            unlock();
+        }
+    }
+
+    // First k of a sorted view (cheapest price, highest value …)
+    public List<Product> topK(String by, int k) {
+        return page(by, 0, k);
+    }
+
+    // The view for `by` (built now if this is its first use), or null
+    // for insertion order. Caller holds the lock.
+    private RankedIndex sortedIndex(String by) {
         switch (by.toLowerCase()) {
-            case "name":     list.sort(Comparator.comparing(Product::getName)); break;
-            case "price":    list.sort(Comparator.comparingDouble(Product::getPrice)); break;
-            case "quantity": list.sort(Comparator.comparingInt(Product::getQuantity)); break;
-            case "value":    list.sort(Comparator.comparingDouble(Product::getTotalValue).reversed()); break;
-            default: break;   // insertion order (LinkedHashMap)
+            case "name":
+                if (sortedByName == null) {
+                    sortedByName = new RankedIndex();
+                    for (Product p : store.values()) sortedByName.insert(p.getName(), p);
+                }
+                return sortedByName;
+            case "price":
+                if (sortedByPrice == null) {
+                    sortedByPrice = new RankedIndex();
+                    for (Product p : store.values()) sortedByPrice.insert(p.getPrice(), p);
+                }
+                return sortedByPrice;
+            case "quantity":
+                if (sortedByQuantity == null) {
+                    sortedByQuantity = new RankedIndex();
+                    for (Product p : store.values()) sortedByQuantity.insert(p.getIndexedQuantity(), p);
+                }
+                return sortedByQuantity;
+            case "value":                                // highest first
+                if (sortedByValue == null) {
+                    sortedByValue = new RankedIndex();
+                    for (Product p : store.values()) sortedByValue.insert(-(p.getPrice() * p.getIndexedQuantity()), p);
+                }
+                return sortedByValue;
+            default:
+                return null;
         }
-        return list;
+    }
+
+    private void addToSortedViews(Product p) {
+        int qty = p.getIndexedQuantity();
+        if (sortedByName     != null) sortedByName.insert(p.getName(), p);
+        if (sortedByPrice    != null) sortedByPrice.insert(p.getPrice(), p);
+        if (sortedByQuantity != null) sortedByQuantity.insert(qty, p);
+        if (sortedByValue    != null) sortedByValue.insert(-(p.getPrice() * qty), p);
     }
 
     // ── REPORTS ──────────────────────────────────────────────
 
     public void printTable(List<Product> products, String title) {
-        System.out.println("\n  ── " + title + " ──");
+        try (TableRenderer out = new TableRenderer(System.out)) {
+            writeTable(products, title, out);
+        }
+    }
+
+    // Rows go through the renderer's buffer – no String.format, and one
+    // write per TableRenderer.CHUNK characters
+    public void writeTable(List<Product> products, String title, TableRenderer out) {
+        out.line("").line("  ── " + title + " ──");
         if (products.isEmpty()) {
-            System.out.println("  (no products)");
+            out.line("  (no products)");
             return;
         }
-        System.out.printf("  %-6s %-22s %-14s %8s  %6s  %10s  %-12s%n",
-                "ID", "Name", "Category", "Price(₹)", "Qty", "Value(₹)", "Status");
-        System.out.println("  " + "─".repeat(85));
-        for (Product p : products) System.out.println(p.toTableRow());
-        System.out.println("  " + "─".repeat(85));
+        out.line(TABLE_HEADER);
+        out.line(TABLE_RULE);
+        for (Product p : products) p.writeTableRow(out);
+        out.line(TABLE_RULE);
     }
 
-    public void printSummary() {
-        if (store.isEmpty()) { System.out.println("  Inventory is empty."); return; }
-
-        int    totalProducts = store.size();
-        double totalValue    = 0;
-        int    totalItems    = 0;
-        int    lowStockCount = 0;
-        int    outOfStock    = 0;
-
-        // Category breakdown using HashMap
-        Map<String, double[]> catStats = new LinkedHashMap<>(); // cat → [count, value]
-
-        for (Product p : store.values()) {
-            totalValue  += p.getTotalValue();
-            totalItems  += p.getQuantity();
-            if (p.isLowStock())   lowStockCount++;
-            if (p.isOutOfStock()) outOfStock++;
+    private static final String TABLE_HEADER = String.format(Locale.ROOT, Product.TABLE_HEADER_FORMAT,
+            "ID", "Name", "Category", "Price(₹)", "Qty", "Value(₹)", "Status");
+    private static final String TABLE_RULE = "  " + "─".repeat(85);
 
-            catStats.computeIfAbsent(p.getCategory(), k -> new double[]{0, 0});
-            catStats.get(p.getCategory())[0]++;
-            catStats.get(p.getCategory())[1] += p.getTotalValue();
-        }
+    public void printSummary() {
+        InventorySnapshot snap = snapshot();
+        if (snap.totalProducts == 0) { System.out.println("  Inventory is empty."); return; }
 
         StringBuilder sb = new StringBuilder();
         sb.append("\n  ╔══════════════════════════════════════════╗\n");
         sb.append("  ║           INVENTORY SUMMARY              ║\n");
         sb.append("  ╠══════════════════════════════════════════╣\n");
-        sb.append(String.format("  ║  Total Products  : %-22d║%n", totalProducts));
-        sb.append(String.format("  ║  Total Items     : %-22d║%n", totalItems));
-        sb.append(String.format("  ║  Total Value     : ₹%-21,.2f║%n", totalValue));
-        sb.append(String.format("  ║  Low Stock Items : %-22d║%n", lowStockCount));
-        sb.append(String.format("  ║  Out of Stock    : %-22d║%n", outOfStock));
+        sb.append(String.format("  ║  Total Products  : %-22d║%n", snap.totalProducts));
+        sb.append(String.format("  ║  Total Items     : %-22d║%n", snap.totalItems));
+        sb.append(String.format("  ║  Total Value     : ₹%-,21.2f║%n", snap.totalValue));
+        sb.append(String.format("  ║  Low Stock Items : %-22d║%n", snap.lowStockCount));
+        sb.append(String.format("  ║  Out of Stock    : %-22d║%n", snap.outOfStockCount));
         sb.append("  ╠══════════════════════════════════════════╣\n");
         sb.append("  ║  Category Breakdown                      ║\n");
         sb.append("  ╠══════════════════════════════════════════╣\n");
-        for (Map.Entry<String, double[]> e : catStats.entrySet()) {
-            sb.append(String.format("  ║  %-12s  %2.0f items  ₹%,11.2f ║%n",
-                    e.getKey(), e.getValue()[0], e.getValue()[1]));
+        for (int i = 0; i < snap.categoryCount(); i++) {
+            sb.append(String.format("  ║  %-12s  %2d items  ₹%,11.2f ║%n",
+                    snap.category(i), snap.categoryProducts(i), snap.categoryValue(i)));
         }
         sb.append("  ╚══════════════════════════════════════════╝");
         System.out.println(sb);
     }
 
-    public int size() { return store.size(); }
+    public int size() { return byId.size(); }
 }
 
 
@@ -332,6 +2025,7 @@ public class InventoryManager {
         System.out.println("║  8.  Adjust stock (+ or -)                ║");
         System.out.println("║  9.  Low stock alerts                     ║");
         System.out.println("║  10. Inventory summary                    ║");
+        System.out.println("║  11. Import products from CSV             ║");
         System.out.println("║  0.  Exit                                 ║");
         System.out.println("╚══════════════════════════════════════════╝");
         System.out.print("  Choice: ");
@@ -383,6 +2077,19 @@ public class InventoryManager {
         }
     }
 
+    static void handleImport() {
+        System.out.println("\n  --- Import Products (name,category,price,quantity[,threshold]) ---");
+        String file = readString("  CSV file   : ");
+        try {
+            CatalogueImporter importer = new CatalogueImporter(Runtime.getRuntime().availableProcessors());
+            ImportReport report = importer.importCsv(Paths.get(file), inventory);
+            System.out.println("  ✔ " + report);
+            for (String error : report.getErrors()) System.out.println("  ✘ " + error);
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("  ✘ Cannot read '" + file + "': " + e.getMessage());
+        }
+    }
+
     static void handleRemove() {
         int id = readInt("\n  Enter Product ID to remove: ");
         try {
@@ -439,18 +2146,19 @@ public class InventoryManager {
             System.out.println("  ✘ " + e.getMessage());
         }
     }
-
     // ═══════════════════════════════════════════════════════
     //  ENTRY POINT
     // ═══════════════════════════════════════════════════════
     public static void main(String[] args) {
-
         System.out.println("╔══════════════════════════════════════════╗");
         System.out.println("║  CLI INVENTORY MANAGER  –  Day 21        ║");
         System.out.println("║  Week 3 Capstone                         ║");
         System.out.println("╚══════════════════════════════════════════╝");
 
         seedData();
+        inventory.addStockAlertListener((p, low) -> System.out.println(low
+                ? "  ⚠  Restock alert: '" + p.getName() + "' is down to " + p.getQuantity()
+                : "  ✔ '" + p.getName() + "' is back above its threshold"));
 
         boolean running = true;
         while (running) {
@@ -459,7 +2167,7 @@ public class InventoryManager {
             try {
                 choice = Integer.parseInt(sc.nextLine().trim());
             } catch (NumberFormatException e) {
-                System.out.println("  ⚠  Enter a number 0–10.");
+                System.out.println("  ⚠  Enter a number 0–11.");
                 continue;
             }
 
@@ -503,13 +2211,15 @@ public class InventoryManager {
                     inventory.printSummary();
                     break;
 
+                case 11: handleImport();       break;
+
                 case 0:
                     running = false;
                     System.out.println("\n  Inventory Manager closed. Goodbye!");
                     break;
 
                 default:
-                    System.out.println("  ⚠  Choose 0–10.");
+                    System.out.println("  ⚠  Choose 0–11.");
             }
         }
         sc.close();
@@ -0,0 +1,366 @@
+// InventoryManagerBench.java
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ *  Large-catalogue benchmarks for InventoryManager: bulk adds, name and
+ *  category search, low-stock scans, sorted paging, the dashboard
+ *  snapshot, id allocation, CSV import and table rendering.
+ *
+ *  Run:
+ *    javac *.java && java InventoryManagerBench
+ */
+@SuppressWarnings("auxiliaryclass")   // Inventory, Product etc. are top-level classes in InventoryManager.java
+public class InventoryManagerBench {
+
+    public static void main(String[] args) {
+        runBenchmarks();
+    }
+
+    static void runBenchmarks() {
+        benchBulkAdd();
+        benchNameSearch();
+        benchCategorySearch();
+        benchLowStock();
+        benchSortedPaging();
+        benchSnapshot();
+        benchIdAllocation();
+        benchImport();
+        benchTableRendering();
+    }
+
+    // A million-row report written to a file: the old String.format +
+    // println path vs the renderer, against a plain write of the bytes
+    static void benchTableRendering() {
+        final int ROWS = 1_000_000;
+        Inventory catalogue = new Inventory();
+        try {
+            for (int i = 0; i < ROWS; i++) {
+                catalogue.addProduct(catalogueName(i), THINGS[i % THINGS.length] + "s", 10 + i % 50_000 / 100.0, i % 40);
+            }
+        } catch (DuplicateProductException e) {
+            throw new IllegalStateException(e);
+        }
+        List<Product> rows = catalogue.getAllSorted("default");
+        try {
+            Path oldFile = Files.createTempFile("report-format", ".txt");
+            Path newFile = Files.createTempFile("report-renderer", ".txt");
+            try {
+                long oldNs = Long.MAX_VALUE, newNs = Long.MAX_VALUE, rawNs = Long.MAX_VALUE;
+                for (int round = 0; round < 3; round++) {
+                    long start = System.nanoTime();
+                    try (PrintStream out = new PrintStream(Files.newOutputStream(oldFile), true, StandardCharsets.UTF_8)) {
+                        for (Product p : rows) out.println(p.toTableRow());
+                    }
+                    oldNs = Math.min(oldNs, System.nanoTime() - start);
+
+                    start = System.nanoTime();
+                    try (FileChannel ch = FileChannel.open(newFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                         TableRenderer out = new TableRenderer(ch, StandardCharsets.UTF_8)) {
+                        for (Product p : rows) p.writeTableRow(out);
+                    }
+                    newNs = Math.min(newNs, System.nanoTime() - start);
+                }
+                byte[] report = Files.readAllBytes(newFile);
+                boolean same = Arrays.equals(report, Files.readAllBytes(oldFile));
+                for (int round = 0; round < 3; round++) {
+                    long start = System.nanoTime();
+                    Files.write(oldFile, report);
+                    rawNs = Math.min(rawNs, System.nanoTime() - start);
+                }
+                System.out.printf("  [Bench] %,d-row report (%,d MB): format+println %,d ms | renderer %,d ms | raw write %,d ms %s%n",
+                        ROWS, report.length >> 20, oldNs / 1_000_000, newNs / 1_000_000, rawNs / 1_000_000,
+                        same ? "✔ identical" : "✘ output differs");
+            } finally {
+                Files.deleteIfExists(oldFile);
+                Files.deleteIfExists(newFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Bulk CSV import: parallel parse + one publish, with a sprinkling
+    // of duplicate and malformed rows as real feeds have
+    static void benchImport() {
+        final int ROWS = 1_000_000;
+        StringBuilder csv = new StringBuilder(ROWS * 48).append("name,category,price,quantity,lowStockThreshold\n");
+        int expectDupes = 0, expectBad = 0;
+        for (int i = 0; i < ROWS; i++) {
+            if (i % 1000 == 999) { csv.append("\"Broken, row\",Misc,abc,1\n"); expectBad++; continue; }
+            int n = i % 100 == 99 ? i - 1 : i;                // repeat the previous name
+            if (n != i) expectDupes++;
+            String name = catalogueName(n);
+            if (n % 7 == 0) csv.append('"').append(name).append(" \"\"XL\"\"\"");
+            else            csv.append(name);
+            csv.append(',').append(THINGS[n % THINGS.length]).append('s')
+               .append(',').append(100 + n % 900).append('.').append(n % 100 < 10 ? "0" : "").append(n % 100)
+               .append(',').append(n % 50)
+               .append(',').append(n % 10).append('\n');
+        }
+        byte[] feed = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        Inventory catalogue = new Inventory();
+        ImportReport report = new CatalogueImporter(threads).importCsv(feed, catalogue);
+        boolean ok = report.getRows() == ROWS && report.getDuplicates() == expectDupes
+                && report.getRejected() == expectBad && catalogue.size() == ROWS - expectDupes - expectBad;
+        System.out.printf("  [Bench] import %,d MB CSV, %d thread(s): %s %s%n",
+                feed.length >> 20, threads, report, ok ? "✔" : "✘");
+    }
+
+    // Ids per second while several threads create products at once:
+    // one shared counter vs per-thread blocks
+    static void benchIdAllocation() {
+        final int IDS = 4_000_000;   // split across the threads
+        for (int threads : new int[] { 1, 2, 4, 8 }) {
+            AtomicInteger shared = new AtomicInteger(1000);
+            double counterRate = 0, blockRate = 0;
+            for (int round = 0; round < 3; round++) {
+                counterRate = Math.max(counterRate, allocationRate(shared::getAndIncrement, threads, IDS / threads));
+                blockRate   = Math.max(blockRate, allocationRate(
+                        BlockIdAllocator.inMemory(1000, BlockIdAllocator.DEFAULT_BLOCK)::nextId, threads, IDS / threads));
+            }
+            System.out.printf("  [Bench] ids, %d thread(s): shared counter %,.0f/sec | blocks of %d %,.0f/sec%n",
+                    threads, counterRate, BlockIdAllocator.DEFAULT_BLOCK, blockRate);
+        }
+        System.out.println("  (available cores: " + Runtime.getRuntime().availableProcessors() + ")");
+    }
+
+    private static double allocationRate(IntSupplier ids, int threads, int perThread) {
+        CountDownLatch go = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        long[] sink = new long[threads];
+        for (int t = 0; t < threads; t++) {
+            final int slot = t;
+            workers[t] = new Thread(() -> {
+                try { go.await(); } catch (InterruptedException e) { throw new IllegalStateException(e); }
+                long sum = 0;
+                for (int i = 0; i < perThread; i++) sum += ids.getAsInt();
+                sink[slot] = sum;
+            });
+            workers[t].start();
+        }
+        long start = System.nanoTime();
+        go.countDown();
+        for (Thread w : workers) {
+            try { w.join(); } catch (InterruptedException e) { throw new IllegalStateException(e); }
+        }
+        return (double) threads * perThread / ((System.nanoTime() - start) / 1e9);
+    }
+
+    // Dashboard poll: maintained snapshot vs the old full-scan summary
+    static void benchSnapshot() {
+        final int PRODUCTS = 1_000_000;
+        Inventory catalogue = new Inventory();
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        try {
+            for (int i = 0; i < PRODUCTS; i++) {
+                products.add(catalogue.addProduct(catalogueName(i), THINGS[i % THINGS.length] + "s", 10 + i % 500, i % 40));
+            }
+        } catch (DuplicateProductException e) {
+            throw new IllegalStateException(e);
+        }
+        for (int i = 0; i < PRODUCTS; i += 7) products.get(i).adjustQuantity(3);
+        for (int i = 0; i < PRODUCTS; i += 11) products.get(i).setPrice(products.get(i).getPrice() + 0.5);
+
+        long best = Long.MAX_VALUE;
+        InventorySnapshot snap = null;
+        for (int round = 0; round < 20; round++) {
+            long start = System.nanoTime();
+            snap = catalogue.snapshot();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        long start = System.nanoTime();
+        double value = 0;
+        long items = 0;
+        int low = 0, out = 0;
+        Map<String, double[]> catStats = new LinkedHashMap<>();
+        for (Product p : products) {
+            value += p.getTotalValue();
+            items += p.getQuantity();
+            if (p.isLowStock())   low++;
+            if (p.isOutOfStock()) out++;
+            catStats.computeIfAbsent(p.getCategory(), k -> new double[2])[1] += p.getTotalValue();
+        }
+        long scanNs = System.nanoTime() - start;
+        boolean same = snap.totalItems == items && snap.lowStockCount == low && snap.outOfStockCount == out
+                && Math.abs(snap.totalValue - value) < 0.01 && snap.categoryCount() == catStats.size();
+        System.out.printf("  [Bench] summary of %,d products: snapshot %,.3f ms | full scan %,.1f ms %s%n",
+                PRODUCTS, best / 1e6, scanNs / 1e6, same ? "✔" : "✘");
+    }
+
+    // Paging deep into a sorted catalogue: ranked index vs copy + sort
+    static void benchSortedPaging() {
+        final int PRODUCTS = 1_000_000;
+        final int PAGE     = 20;
+        Inventory catalogue = new Inventory();
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        try {
+            for (int i = 0; i < PRODUCTS; i++) {
+                products.add(catalogue.addProduct(catalogueName(i), "General", 10 + (i * 7919L) % 100_000, i % 500));
+            }
+        } catch (DuplicateProductException e) {
+            throw new IllegalStateException(e);
+        }
+        String[] views = {"name", "price", "quantity", "value"};
+        long start = System.nanoTime();
+        for (String by : views) catalogue.topK(by, 1);                        // first use builds the view
+        System.out.printf("  [Bench] built 4 sorted views of %,d products in %,d ms%n",
+                PRODUCTS, (System.nanoTime() - start) / 1_000_000);
+        for (int i = 0; i < PRODUCTS; i += 101) products.get(i).setPrice(products.get(i).getPrice() + 1);   // views follow
+
+        for (String by : views) {
+            long best = Long.MAX_VALUE;
+            List<Product> page = null;
+            for (int round = 0; round < 20; round++) {
+                start = System.nanoTime();
+                page = catalogue.page(by, 500_000 + round, PAGE);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            start = System.nanoTime();
+            List<Product> sorted = new ArrayList<>(products);
+            switch (by) {
+                case "name":     sorted.sort(Comparator.comparing(Product::getName)); break;
+                case "price":    sorted.sort(Comparator.comparingDouble(Product::getPrice)); break;
+                case "quantity": sorted.sort(Comparator.comparingInt(Product::getQuantity)); break;
+                default:         sorted.sort(Comparator.comparingDouble(Product::getTotalValue).reversed()); break;
+            }
+            long sortNs = System.nanoTime() - start;
+            boolean same = page.equals(sorted.subList(500_019, 500_019 + PAGE));
+            System.out.printf("  [Bench] page %-8s @500,000: index %,7.3f ms | copy+sort %,7.1f ms %s%n",
+                    by, best / 1e6, sortNs / 1e6, same ? "✔" : "✘");
+        }
+    }
+
+    // Low-stock report on a mostly well-stocked catalogue, with stock
+    // moving underneath it
+    static void benchLowStock() {
+        final int PRODUCTS = 1_000_000;
+        Inventory catalogue = new Inventory();
+        int[] crossings = new int[1];
+        catalogue.addStockAlertListener((p, low) -> crossings[0]++);
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        try {
+            for (int i = 0; i < PRODUCTS; i++) products.add(catalogue.addProduct(catalogueName(i), "General", 100, 50));
+        } catch (DuplicateProductException e) {
+            throw new IllegalStateException(e);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < PRODUCTS; i += 97) products.get(i).adjustQuantity(-(45 + i % 6));   // some go low / out
+        long moveNs = System.nanoTime() - start;
+
+        long best = Long.MAX_VALUE;
+        int hits = 0;
+        for (int round = 0; round < 20; round++) {
+            start = System.nanoTime();
+            hits = catalogue.getLowStockProducts().size();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        start = System.nanoTime();
+        int scanHits = 0;
+        for (Product p : products) if (p.isLowStock() || p.isOutOfStock()) scanHits++;
+        long scanNs = System.nanoTime() - start;
+        List<Product> worst = catalogue.getLowStockByShortfall();
+        System.out.printf("  [Bench] low stock %,d items (%,d alerts, %,.0f ns/adjust): index %,.3f ms | scan %,.1f ms %s%n",
+                hits, crossings[0], (double) moveNs / (PRODUCTS / 97 + 1), best / 1e6, scanNs / 1e6,
+                hits == scanHits && crossings[0] == hits && worst.get(0).isOutOfStock() ? "✔" : "✘");
+    }
+
+    // One small category among many large ones: bucket lookup vs scan
+    static void benchCategorySearch() {
+        final int PRODUCTS = 1_000_000;
+        Inventory catalogue = new Inventory();
+        try {
+            for (int i = 0; i < PRODUCTS; i++) {
+                String category = (i % 1_000 == 0) ? "Rare Books" : THINGS[i % THINGS.length] + "s";
+                catalogue.addProduct(catalogueName(i), category, 100, 10);
+            }
+        } catch (DuplicateProductException e) {
+            throw new IllegalStateException(e);
+        }
+        for (String query : new String[]{"rare", "mouse"}) {
+            long best = Long.MAX_VALUE;
+            int hits = 0;
+            for (int round = 0; round < 20; round++) {
+                long start = System.nanoTime();
+                hits = catalogue.searchByCategory(query).size();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            long start = System.nanoTime();
+            int scanHits = 0;
+            for (Product p : catalogue.getAllSorted("default")) if (p.getCategory().toLowerCase().contains(query)) scanHits++;
+            long scanNs = System.nanoTime() - start;
+            System.out.printf("  [Bench] category %-8s %,7d hits: buckets %,8.3f ms | scan %,7.1f ms %s%n",
+                    "\"" + query + "\"", hits, best / 1e6, scanNs / 1e6, hits == scanHits ? "✔" : "✘");
+        }
+    }
+
+    static final String[] BRANDS = {"Acme", "Globex", "Initech", "Umbrella", "Stark", "Wayne", "Hooli", "Vandelay"};
+    static final String[] STYLES = {"Wireless", "Compact", "Ergonomic", "Premium", "Classic", "Smart", "Rugged", "Slim"};
+    static final String[] THINGS = {"Mouse", "Keyboard", "Monitor", "Lamp", "Chair", "Backpack", "Speaker", "Charger",
+                                    "Notebook", "Bottle", "Jacket", "Sneakers", "Router", "Headphones", "Tripod", "Kettle"};
+
+    // e.g. "Hooli Slim Router 48213" – distinct for every i
+    static String catalogueName(int i) {
+        return BRANDS[i % BRANDS.length] + " " + STYLES[(i / 8) % STYLES.length] + " "
+                + THINGS[(i / 64) % THINGS.length] + " " + i;
+    }
+
+    // Substring search: trigram index vs the old full scan
+    static void benchNameSearch() {
+        final int PRODUCTS = 1_000_000;
+        Inventory catalogue = new Inventory();
+        try {
+            for (int i = 0; i < PRODUCTS; i++) catalogue.addProduct(catalogueName(i), "General", 100, 10);
+        } catch (DuplicateProductException e) {
+            throw new IllegalStateException(e);
+        }
+        String[] queries = {"router 4821", "ergonomic chair 9", "hooli slim", "99999", "kettle 12345"};
+        for (String query : queries) {
+            long best = Long.MAX_VALUE;
+            int hits = 0;
+            for (int round = 0; round < 20; round++) {
+                long start = System.nanoTime();
+                hits = catalogue.searchByName(query).size();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            long start = System.nanoTime();
+            int scanHits = 0;
+            String kw = query.toLowerCase();
+            for (Product p : catalogue.getAllSorted("default")) if (p.getName().toLowerCase().contains(kw)) scanHits++;
+            long scanNs = System.nanoTime() - start;
+            System.out.printf("  [Bench] search %-20s %,7d hits: index %,9.3f ms | scan %,7.1f ms %s%n",
+                    "\"" + query + "\"", hits, best / 1e6, scanNs / 1e6, hits == scanHits ? "✔" : "✘");
+        }
+    }
+
+    // Bulk load: each add does a duplicate check against everything so far
+    static void benchBulkAdd() {
+        final int PRODUCTS = 1_000_000;
+        Inventory catalogue = new Inventory();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < PRODUCTS; i++) {
+                catalogue.addProduct("Item " + i, "Category " + (i % 20), 100 + i % 900, i % 50);
+            }
+            catalogue.addProduct("ITEM 42", "Category 2", 1, 1);
+            System.out.println("  ✘ Duplicate name was accepted!");
+        } catch (DuplicateProductException e) {
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("  [Bench] added %,d products in %,d ms (%,.0f adds/sec); duplicate rejected ✔%n",
+                    catalogue.size(), elapsed / 1_000_000, catalogue.size() * 1e9 / elapsed);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+// InventoryManagerStress.java
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  Stress checks for InventoryManager: a flash-sale checkout against a
+ *  few hot SKUs, and product ids allocated from many threads across an
+ *  allocator restart. Each check prints ✔ or ✘.
+ *
+ *  Run:
+ *    javac *.java && java InventoryManagerStress
+ */
+@SuppressWarnings("auxiliaryclass")   // Inventory, Product etc. are top-level classes in InventoryManager.java
+public class InventoryManagerStress {
+
+    public static void main(String[] args) {
+        runCheckoutStressTest();
+        runIdAllocatorStressTest();
+    }
+
+    //  Flash sale: THREADS checkout threads reserve 1–3 units of a few
+    //  hot SKUs and commit or release at random, while a restock
+    //  thread tops stock up. Units sold must match what disappeared
+    //  from stock, and stock must never go negative.
+    static void runCheckoutStressTest() {
+        final int THREADS   = 200;
+        final int ATTEMPTS  = 5_000;     // per thread
+        final int SKUS      = 4;
+        final int START_QTY = 100_000;
+
+        Inventory shop = new Inventory();
+        int[] ids = new int[SKUS];
+        try {
+            for (int i = 0; i < SKUS; i++) ids[i] = shop.addProduct("Flash Deal " + i, "Deals", 999, START_QTY).getId();
+        } catch (DuplicateProductException e) {
+            throw new IllegalStateException(e);
+        }
+        shop.topK("quantity", 1);   // build the quantity view so it is maintained during the sale
+
+        AtomicLong sold = new AtomicLong(), restocked = new AtomicLong(), soldOut = new AtomicLong();
+        AtomicLong negativeSeen = new AtomicLong();
+        CountDownLatch go = new CountDownLatch(1);
+        Thread[] buyers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            buyers[t] = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                try {
+                    go.await();
+                    for (int i = 0; i < ATTEMPTS; i++) {
+                        int id  = ids[rnd.nextInt(SKUS)];
+                        int qty = 1 + rnd.nextInt(3);
+                        long reservation = shop.reserve(id, qty);
+                        if (reservation == Inventory.NO_RESERVATION) { soldOut.incrementAndGet(); continue; }
+                        if (shop.getById(id).getQuantity() < 0) negativeSeen.incrementAndGet();
+                        if (rnd.nextBoolean()) { if (shop.commit(reservation)) sold.addAndGet(qty); }
+                        else shop.release(reservation);
+                    }
+                } catch (InterruptedException | ProductNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            buyers[t].start();
+        }
+        Thread restocker = new Thread(() -> {
+            try {
+                go.await();
+                for (int i = 0; i < 2_000; i++) {
+                    shop.adjustStock(ids[i % SKUS], 50);
+                    restocked.addAndGet(50);
+                }
+            } catch (InterruptedException | ProductNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        restocker.start();
+
+        long start = System.nanoTime();
+        go.countDown();
+        try {
+            for (Thread buyer : buyers) buyer.join();
+            restocker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long left = 0;
+        for (Product p : shop.getAllSorted("default")) left += p.getQuantity();
+        long expected = (long) SKUS * START_QTY + restocked.get() - sold.get();
+        System.out.printf("  [Stress] %,d checkouts from %d threads in %,d ms (%,.0f reservations/sec)%n",
+                (long) THREADS * ATTEMPTS, THREADS, elapsed / 1_000_000,
+                (double) THREADS * ATTEMPTS * 1e9 / elapsed);
+        System.out.printf("  Sold %,d units | restocked %,d | left %,d | sold-out rejections %,d%n",
+                sold.get(), restocked.get(), left, soldOut.get());
+        System.out.println(left == expected && negativeSeen.get() == 0 && shop.pendingReservations() == 0
+                ? "  ✔ No overselling – every unit accounted for."
+                : "  ✘ Stock does not add up!");
+
+        // Indexes caught up with every stock move
+        List<Product> low = shop.getLowStockProducts();
+        int scanLow = 0;
+        for (Product p : shop.getAllSorted("default")) if (p.needsRestock()) scanLow++;
+        List<Product> byQty = shop.getAllSorted("quantity");
+        boolean ordered = true;
+        for (int i = 1; i < byQty.size(); i++) ordered &= byQty.get(i - 1).getQuantity() <= byQty.get(i).getQuantity();
+        System.out.println(low.size() == scanLow && ordered
+                ? "  ✔ Low-stock and sorted indexes match the stock."
+                : "  ✘ Indexes out of step with stock!");
+        InventorySnapshot snap = shop.snapshot();
+        System.out.println(snap.totalItems == left && snap.lowStockCount + snap.outOfStockCount == scanLow
+                ? "  ✔ Snapshot totals match a full scan."
+                : "  ✘ Snapshot totals drifted!");
+    }
+
+    // Concurrent product creation never repeats an id, and a restarted
+    // persistent allocator starts past every id the last one handed out
+    static void runIdAllocatorStressTest() {
+        final int THREADS    = 8;
+        final int PER_THREAD = 50_000;
+        Path mark;
+        try {
+            mark = Files.createTempFile("product-ids", ".mark");
+            Files.delete(mark);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Product.setIdAllocator(BlockIdAllocator.persistent(mark, 1000, 64));
+            int[][] first  = createProducts(THREADS, PER_THREAD);
+            Product.setIdAllocator(BlockIdAllocator.persistent(mark, 1000, 64));   // restart from the mark
+            int[][] second = createProducts(THREADS, PER_THREAD);
+
+            BitSet seen = new BitSet();
+            int dupes = 0, maxFirst = 0, minSecond = Integer.MAX_VALUE;
+            for (int[][] run : new int[][][] { first, second }) {
+                for (int[] ids : run) {
+                    for (int id : ids) {
+                        if (seen.get(id)) dupes++;
+                        seen.set(id);
+                    }
+                }
+            }
+            for (int[] ids : first)  for (int id : ids) maxFirst  = Math.max(maxFirst, id);
+            for (int[] ids : second) for (int id : ids) minSecond = Math.min(minSecond, id);
+            System.out.printf("%n  [Stress] %,d products from %d threads, twice (restart in between)%n",
+                    2 * THREADS * PER_THREAD, THREADS);
+            System.out.println(dupes == 0
+                    ? "  ✔ Every product id is unique."
+                    : "  ✘ " + dupes + " duplicate ids!");
+            System.out.println(minSecond > maxFirst
+                    ? "  ✔ Ids after restart (from " + minSecond + ") are past the last run (up to " + maxFirst + ")."
+                    : "  ✘ Ids after restart overlap the last run!");
+        } finally {
+            Product.setIdAllocator(BlockIdAllocator.inMemory(1000, BlockIdAllocator.DEFAULT_BLOCK));
+            try { Files.deleteIfExists(mark); } catch (IOException ignored) { }
+        }
+    }
+
+    private static int[][] createProducts(int threads, int perThread) {
+        int[][] made = new int[threads][perThread];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int[] out = made[t];
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) out[i] = new Product("Item", "Misc", 1, 1).getId();
+            });
+            workers[t].start();
+        }
+        for (Thread w : workers) {
+            try { w.join(); } catch (InterruptedException e) { throw new IllegalStateException(e); }
+        }
+        return made;
+    }
+}
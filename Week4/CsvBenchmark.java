@@ -0,0 +1,174 @@
+// CsvBenchmark.java
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Parser benchmark: CsvTokenizer against the split()-based parsers it
+ * replaced in Day22, Day25 and Day30 (kept below as legacy copies).
+ *
+ * Hand-rolled rather than JMH, as nothing in this repo uses a build
+ * tool: each case is warmed up, then the best of several rounds is
+ * reported along with the bytes allocated per line.
+ *
+ * Run:
+ *   javac CsvBenchmark.java && java CsvBenchmark
+ */
+public class CsvBenchmark {
+
+    private static final int LINES = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    interface Parser {
+        long parse(String text) throws IOException;     // returns a checksum of what it read
+    }
+
+    public static void main(String[] args) throws IOException {
+        StringBuilder products = new StringBuilder();
+        StringBuilder tasks = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            products.append(new Day22.Product(i, "Product " + i, 10 + i % 1000 / 4.0, i % 50).toFileString()).append('\n');
+            tasks.append(i).append(",Task number ").append(i).append(',')
+                 .append(LocalDate.of(2026, 1 + i % 12, 1 + i % 28)).append(',')
+                 .append(Day30.Task.Priority.values()[i % 3]).append(',').append(i % 2 == 0).append('\n');
+        }
+        String productCsv = products.toString();
+        String taskCsv = tasks.toString();
+
+        System.out.printf("Parsing %,d lines per run (best of %d):%n", LINES, ROUNDS);
+        compare("Day22 Product", productCsv, CsvBenchmark::legacyDay22, CsvBenchmark::tokenizerDay22);
+        compare("Day25 Product", productCsv, CsvBenchmark::legacyDay25, CsvBenchmark::tokenizerDay25);
+        compare("Day30 Task", taskCsv, CsvBenchmark::legacyDay30, CsvBenchmark::tokenizerDay30);
+    }
+
+    private static void compare(String name, String text, Parser legacy, Parser tokenizer) throws IOException {
+        long[] before = measure(legacy, text);
+        long[] after = measure(tokenizer, text);
+        System.out.printf("  %-14s split() %,5d ms %,5d B/line | CsvTokenizer %,5d ms %,5d B/line | %s%n",
+                name, before[0] / 1_000_000, before[1] / LINES, after[0] / 1_000_000, after[1] / LINES,
+                before[2] == after[2] ? "same results" : "RESULTS DIFFER");
+    }
+
+    // { best nanos, bytes allocated in that round, checksum }
+    private static long[] measure(Parser parser, String text) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long[] best = { Long.MAX_VALUE, 0, 0 };
+        for (int round = 0; round < ROUNDS + 2; round++) {           // first two rounds warm up
+            long bytes = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            long checksum = parser.parse(text);
+            long elapsed = System.nanoTime() - start;
+            bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+            if (round >= 2 && elapsed < best[0]) {
+                best[0] = elapsed;
+                best[1] = bytes;
+                best[2] = checksum;
+            }
+        }
+        return best;
+    }
+
+    // ---------- CsvTokenizer (current parsers) ----------
+
+    private static long tokenizerDay22(String text) throws IOException {
+        long sum = 0;
+        try (CsvTokenizer csv = new CsvTokenizer(new StringReader(text))) {
+            while (csv.next()) sum += checksum(Day22.Product.fromFileString(csv));
+        }
+        return sum;
+    }
+
+    private static long tokenizerDay25(String text) throws IOException {
+        long sum = 0;
+        try (CsvTokenizer csv = new CsvTokenizer(new StringReader(text))) {
+            while (csv.next()) sum += checksum(Day25.Product.fromCsv(csv));
+        }
+        return sum;
+    }
+
+    private static long tokenizerDay30(String text) throws IOException {
+        long sum = 0;
+        try (CsvTokenizer csv = new CsvTokenizer(new StringReader(text))) {
+            while (csv.next()) sum += checksum(Day30.Task.fromCsv(csv));
+        }
+        return sum;
+    }
+
+    // ---------- Legacy parsers (as they were, reading line by line) ----------
+
+    private static long legacyDay22(String text) throws IOException {
+        long sum = 0;
+        try (BufferedReader br = new BufferedReader(new StringReader(text))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                String[] parts = line.split(",");
+                if (parts.length == 4) {
+                    int id = Integer.parseInt(parts[0].trim());
+                    String name = parts[1].trim();
+                    double price = Double.parseDouble(parts[2].trim());
+                    int qty = Integer.parseInt(parts[3].trim());
+                    sum += checksum(new Day22.Product(id, name, price, qty));
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static long legacyDay25(String text) throws IOException {
+        long sum = 0;
+        try (BufferedReader reader = new BufferedReader(new StringReader(text))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                String[] parts = line.split(",");
+                if (parts.length == 4) {
+                    sum += checksum(new Day25.Product(
+                        Integer.parseInt(parts[0].trim()),
+                        parts[1].trim(),
+                        Double.parseDouble(parts[2].trim()),
+                        Integer.parseInt(parts[3].trim())
+                    ));
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static long legacyDay30(String text) throws IOException {
+        long sum = 0;
+        try (BufferedReader br = new BufferedReader(new StringReader(text))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isBlank()) continue;
+                String[] parts = line.split(",", -1);
+                if (parts.length == 5) {
+                    int id = Integer.parseInt(parts[0].trim());
+                    String desc = parts[1].trim();
+                    LocalDate date = LocalDate.parse(parts[2].trim());
+                    Day30.Task.Priority prio = Day30.Task.Priority.valueOf(parts[3].trim().toUpperCase());
+                    boolean done = Boolean.parseBoolean(parts[4].trim());
+                    sum += checksum(new Day30.Task(id, desc, date, prio, done));
+                }
+            }
+        }
+        return sum;
+    }
+
+    // ---------- Checksums ----------
+
+    private static long checksum(Day22.Product p) {
+        return p.getId() * 31L + p.getName().hashCode() + Double.hashCode(p.getPrice()) + p.getQuantity();
+    }
+
+    private static long checksum(Day25.Product p) {
+        return p.getId() * 31L + p.getName().hashCode() + Double.hashCode(p.getPrice()) + p.getQuantity();
+    }
+
+    private static long checksum(Day30.Task t) {
+        return t.getId() * 31L + t.getDescription().hashCode() + t.getDueDate().toEpochDay()
+                + t.getPriority().ordinal() + (t.isCompleted() ? 1 : 0);
+    }
+}
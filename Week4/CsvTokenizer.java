@@ -0,0 +1,382 @@
+// CsvTokenizer.java
+import java.io.*;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Shared CSV reader for the Week 4 file formats (Day22, Day25, Day30).
+ *
+ * Records are scanned straight out of a reusable char[] window, and
+ * ints, doubles, booleans, enums and ISO dates are parsed in place -
+ * no split() arrays, no trimmed copies, no boxing. Only the text
+ * fields a caller asks for become Strings.
+ *
+ * Every record is one line. A field in double quotes may hold commas
+ * and doubled quotes (""), so a name like "Desk, oak" survives a
+ * save/load; quote() writes line breaks inside a field as spaces.
+ * Unquoted fields are trimmed, as the old split-and-trim parsers did,
+ * and blank lines are skipped. A quote that is not closed on its line,
+ * or is followed by more text (such as "Best" mouse, saved before the
+ * writers quoted anything), is read as plain text up to the next comma,
+ * quotes included, just as the old parsers read it - so one stray quote
+ * cannot swallow the records after it.
+ *
+ * Usage:
+ *   try (CsvTokenizer csv = new CsvTokenizer(new FileReader(file))) {
+ *       while (csv.next()) {
+ *           int id = csv.getInt(0);
+ *           String name = csv.getString(1);
+ *           ...
+ *       }
+ *   }
+ *
+ * Not thread-safe; one tokenizer per reader.
+ */
+public class CsvTokenizer implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader in;            // null when parsing a single line
+    private char[] buf;
+    private int limit;                  // chars of buf in use
+    private int pos;                    // start of the next record
+    private boolean eof;
+
+    // Current record
+    private int recordStart, recordEnd;
+    private int fieldCount;
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private boolean[] quoted = new boolean[8];
+    private boolean[] escaped = new boolean[8];   // quoted and contains ""
+
+    public CsvTokenizer(Reader in) {
+        this.in = in;
+        this.buf = new char[BUFFER_SIZE];
+    }
+
+    private CsvTokenizer(String line) {
+        this.in = null;
+        this.buf = line.toCharArray();
+        this.limit = buf.length;
+        this.eof = true;
+    }
+
+    /** A tokenizer over one line of text, positioned on its record. */
+    public static CsvTokenizer ofLine(String line) {
+        CsvTokenizer csv = new CsvTokenizer(line);
+        try {
+            csv.next();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);      // no reader, cannot happen
+        }
+        return csv;
+    }
+
+    /** Quotes a text field if it needs it (comma, quote, edge spaces); line breaks become spaces. */
+    public static String quote(String field) {
+        if (field == null) return "";
+        field = field.replace('\r', ' ').replace('\n', ' ');
+        boolean needs = !field.isEmpty()
+                && (Character.isWhitespace(field.charAt(0)) || Character.isWhitespace(field.charAt(field.length() - 1)));
+        for (int i = 0; i < field.length() && !needs; i++) {
+            char c = field.charAt(i);
+            needs = c == ',' || c == '"';
+        }
+        return needs ? '"' + field.replace("\"", "\"\"") + '"' : field;
+    }
+
+    // ---------- Records ----------
+
+    /** Moves to the next non-blank record; false at the end of input. */
+    public boolean next() throws IOException {
+        while (true) {
+            int end = scanRecord(pos);
+            if (end < 0) {                                   // record runs past the window:
+                fill();                                      // read more, then rescan it
+                continue;
+            }
+            if (fieldCount == 0) return false;               // nothing left
+            recordStart = pos;
+            recordEnd = end;
+            pos = skipLineBreak(end);
+            if (fieldCount == 1 && !quoted[0] && isBlank(starts[0], ends[0])) continue;
+            return true;
+        }
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /** The raw text of the current record (for error messages). */
+    public String record() {
+        return new String(buf, recordStart, recordEnd - recordStart);
+    }
+
+    // Splits the record starting at p into fields. Returns the index just
+    // past it, or -1 if more input is needed to see its end.
+    private int scanRecord(int p) {
+        fieldCount = 0;
+        if (p >= limit) {
+            if (!eof) return -1;
+            return p;                                        // fieldCount 0 = end of input
+        }
+        while (true) {
+            if (fieldCount == starts.length) growFields();
+            int f = fieldCount++;
+            quoted[f] = false;
+            escaped[f] = false;
+            int fieldStart = p;
+            int q = p;
+            while (q < limit && buf[q] == ' ') q++;
+            if (q < limit && buf[q] == '"') {
+                p = q + 1;
+                while (p < limit && buf[p] != '\n' && buf[p] != '\r') {
+                    if (buf[p] == '"') {
+                        if (p + 1 >= limit && !eof) return -1;
+                        if (p + 1 < limit && buf[p + 1] == '"') { escaped[f] = true; p += 2; continue; }
+                        break;
+                    }
+                    p++;
+                }
+                if (p >= limit && !eof) return -1;
+                boolean closed = p < limit && buf[p] == '"';
+                int closeAt = p;
+                if (closed) {
+                    p++;
+                    while (p < limit && buf[p] == ' ') p++;
+                }
+                if (closed && (p == limit || buf[p] == ',' || buf[p] == '\n' || buf[p] == '\r')) {
+                    quoted[f] = true;
+                    starts[f] = q + 1;
+                    ends[f] = closeAt;
+                } else {
+                    // No closing quote on this line (1,"Quote,5.0,3) or text after
+                    // it ("Best" mouse, from a file written before quoting): plain
+                    // text up to the next comma, quotes included
+                    escaped[f] = false;
+                    starts[f] = fieldStart;
+                    if (!closed) p = q + 1;
+                    while (p < limit && buf[p] != ',' && buf[p] != '\n' && buf[p] != '\r') p++;
+                    ends[f] = p;
+                }
+            } else {
+                starts[f] = p;
+                while (p < limit && buf[p] != ',' && buf[p] != '\n' && buf[p] != '\r') p++;
+                ends[f] = p;
+            }
+            if (p >= limit) {
+                if (!eof) return -1;
+                return p;
+            }
+            if (buf[p] != ',') return p;                     // end of line
+            p++;
+        }
+    }
+
+    private int skipLineBreak(int p) {
+        if (p < limit && buf[p] == '\r') p++;
+        if (p < limit && buf[p] == '\n') p++;
+        return p;
+    }
+
+    // Keeps the unread part of the window and reads more after it
+    private void fill() throws IOException {
+        if (in == null) { eof = true; return; }
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);   // one huge record
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n < 0) eof = true;
+        else limit += n;
+    }
+
+    private void growFields() {
+        int n = starts.length * 2;
+        starts = Arrays.copyOf(starts, n);
+        ends = Arrays.copyOf(ends, n);
+        quoted = Arrays.copyOf(quoted, n);
+        escaped = Arrays.copyOf(escaped, n);
+    }
+
+    private boolean isBlank(int s, int e) {
+        for (int i = s; i < e; i++) if (!Character.isWhitespace(buf[i])) return false;
+        return true;
+    }
+
+    // ---------- Fields ----------
+
+    /** Text of field i; unquoted fields are trimmed. */
+    public String getString(int i) {
+        check(i);
+        int s = starts[i], e = ends[i];
+        if (!quoted[i]) {
+            while (s < e && Character.isWhitespace(buf[s])) s++;
+            while (e > s && Character.isWhitespace(buf[e - 1])) e--;
+        }
+        String text = new String(buf, s, e - s);
+        return escaped[i] ? text.replace("\"\"", "\"") : text;
+    }
+
+    public int getInt(int i) {
+        check(i);
+        int s = trimStart(i), e = trimEnd(i);
+        boolean negative = s < e && buf[s] == '-';
+        if (negative || (s < e && buf[s] == '+')) s++;
+        if (s == e) throw badNumber(i);
+        long v = 0;
+        for (int p = s; p < e; p++) {
+            int d = buf[p] - '0';
+            if (d < 0 || d > 9) throw badNumber(i);
+            v = v * 10 + d;
+            if (v > 2147483648L) throw badNumber(i);
+        }
+        if (negative) v = -v;
+        if (v > Integer.MAX_VALUE) throw badNumber(i);
+        return (int) v;
+    }
+
+    // Digits with an optional '.' and exponent (as Double.toString writes
+    // them): up to 15 significant digits and a power of ten within +-22 are
+    // exact, so one multiply or divide is correctly rounded. Anything
+    // else falls back to Double.parseDouble.
+    public double getDouble(int i) {
+        check(i);
+        int s = trimStart(i), e = trimEnd(i);
+        int p = s;
+        boolean negative = p < e && buf[p] == '-';
+        if (negative || (p < e && buf[p] == '+')) p++;
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean dot = false, any = false;
+        for (; p < e; p++) {
+            char c = buf[p];
+            if (c == '.' && !dot) { dot = true; continue; }
+            if (c < '0' || c > '9') break;
+            any = true;
+            if (mantissa == 0 && c == '0') { if (dot) scale++; continue; }   // leading zeros
+            if (++digits > 15) return slowDouble(i, s, e);
+            mantissa = mantissa * 10 + (c - '0');
+            if (dot) scale++;
+        }
+        if (!any) return slowDouble(i, s, e);
+        int exponent = 0;
+        if (p < e) {
+            if (buf[p] != 'e' && buf[p] != 'E') return slowDouble(i, s, e);
+            p++;
+            boolean expNegative = p < e && buf[p] == '-';
+            if (expNegative || (p < e && buf[p] == '+')) p++;
+            if (p == e) return slowDouble(i, s, e);
+            for (; p < e; p++) {
+                int d = buf[p] - '0';
+                if (d < 0 || d > 9 || exponent > 1000) return slowDouble(i, s, e);
+                exponent = exponent * 10 + d;
+            }
+            if (expNegative) exponent = -exponent;
+        }
+        int power = exponent - scale;
+        double v;
+        if (mantissa == 0) v = 0;
+        else if (power == 0) v = mantissa;
+        else if (power > 0 && power <= 22) v = mantissa * POW10[power];
+        else if (power < 0 && power >= -22) v = mantissa / POW10[-power];
+        else return slowDouble(i, s, e);
+        return negative ? -v : v;
+    }
+
+    private double slowDouble(int i, int s, int e) {
+        try {
+            return Double.parseDouble(new String(buf, s, e - s));
+        } catch (NumberFormatException ex) {
+            throw badNumber(i);
+        }
+    }
+
+    /** Like Boolean.parseBoolean: true only for "true", any case. */
+    public boolean getBoolean(int i) {
+        check(i);
+        int s = trimStart(i), e = trimEnd(i);
+        return e - s == 4
+                && (buf[s] | 0x20) == 't' && (buf[s + 1] | 0x20) == 'r'
+                && (buf[s + 2] | 0x20) == 'u' && (buf[s + 3] | 0x20) == 'e';
+    }
+
+    /** The constant whose name matches field i, ignoring case (pass a cached values()). */
+    public <E extends Enum<E>> E getEnum(int i, E[] values) {
+        check(i);
+        int s = trimStart(i), e = trimEnd(i);
+        for (E value : values) {
+            String name = value.name();
+            if (name.length() != e - s) continue;
+            boolean same = true;
+            for (int k = 0; k < name.length() && same; k++) {
+                same = Character.toUpperCase(buf[s + k]) == Character.toUpperCase(name.charAt(k));
+            }
+            if (same) return value;
+        }
+        throw new IllegalArgumentException("No such value '" + new String(buf, s, e - s) + "' in field " + i);
+    }
+
+    /** An ISO yyyy-mm-dd date (anything else goes through LocalDate.parse). */
+    public LocalDate getDate(int i) {
+        check(i);
+        int s = trimStart(i), e = trimEnd(i);
+        try {
+            if (e - s == 10 && buf[s + 4] == '-' && buf[s + 7] == '-') {
+                int year = digits(s, 4), month = digits(s + 5, 2), day = digits(s + 8, 2);
+                if (year >= 0 && month >= 0 && day >= 0) return LocalDate.of(year, month, day);
+            }
+            return LocalDate.parse(new String(buf, s, e - s));
+        } catch (DateTimeException ex) {
+            throw new IllegalArgumentException("Bad date '" + new String(buf, s, e - s) + "' in field " + i, ex);
+        }
+    }
+
+    // Value of n decimal digits at p, or -1 if one isn't a digit
+    private int digits(int p, int n) {
+        int v = 0;
+        for (int k = 0; k < n; k++) {
+            int d = buf[p + k] - '0';
+            if (d < 0 || d > 9) return -1;
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    private int trimStart(int i) {
+        int s = starts[i];
+        while (s < ends[i] && Character.isWhitespace(buf[s])) s++;
+        return s;
+    }
+
+    private int trimEnd(int i) {
+        int e = ends[i];
+        while (e > starts[i] && Character.isWhitespace(buf[e - 1])) e--;
+        return e;
+    }
+
+    private void check(int i) {
+        if (i < 0 || i >= fieldCount)
+            throw new IllegalArgumentException("Field " + i + " missing (record has " + fieldCount + ")");
+    }
+
+    private NumberFormatException badNumber(int i) {
+        return new NumberFormatException("Bad number '" + new String(buf, starts[i], ends[i] - starts[i]) + "' in field " + i);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) in.close();
+    }
+
+    private static final double[] POW10 = new double[23];
+    static {
+        POW10[0] = 1;
+        for (int k = 1; k < POW10.length; k++) POW10[k] = POW10[k - 1] * 10;
+    }
+}
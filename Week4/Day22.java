@@ -12,6 +12,9 @@ import java.util.*;
  * - FileReader + BufferedReader (reading the file)
  * - CRUD operations on a list of products
  * - Saving/Loading inventory to/from "inventory.txt"
+ *
+ * Reads the file with CsvTokenizer.java from this folder, so compile both
+ * (javac Day22.java picks it up) rather than launching java Day22.java.
  */
 public class Day22 {
 
@@ -44,23 +47,27 @@ public class Day22 {
                                  id, name, price, quantity);
         }
 
-        // Convert to CSV line for file storage
+        // Convert to CSV line for file storage (names with commas are quoted)
         public String toFileString() {
-            return id + "," + name + "," + price + "," + quantity;
+            return id + "," + CsvTokenizer.quote(name) + "," + price + "," + quantity;
         }
 
         // Create a Product from a CSV line
         public static Product fromFileString(String line) {
-            String[] parts = line.split(",");
-            if (parts.length == 4) {
+            return fromFileString(CsvTokenizer.ofLine(line));
+        }
+
+        // Create a Product from the tokenizer's current record
+        public static Product fromFileString(CsvTokenizer csv) {
+            if (csv.fieldCount() == 4) {
                 try {
-                    int id = Integer.parseInt(parts[0].trim());
-                    String name = parts[1].trim();
-                    double price = Double.parseDouble(parts[2].trim());
-                    int qty = Integer.parseInt(parts[3].trim());
+                    int id = csv.getInt(0);
+                    String name = csv.getString(1);
+                    double price = csv.getDouble(2);
+                    int qty = csv.getInt(3);
                     return new Product(id, name, price, qty);
                 } catch (NumberFormatException e) {
-                    System.err.println("Skipping malformed line: " + line);
+                    System.err.println("Skipping malformed line: " + csv.record());
                 }
             }
             return null;
@@ -196,7 +203,7 @@ public class Day22 {
     }
 
     private static void loadFromFile() {
-        // Using FileReader and BufferedReader to read line by line
+        // Using FileReader and CsvTokenizer (a buffered reader that also splits fields)
         File file = new File(FILE_NAME);
         if (!file.exists()) {
             System.out.println("No saved inventory file found. Starting fresh.");
@@ -205,12 +212,10 @@ public class Day22 {
 
         List<Product> loaded = new ArrayList<>();
         try (FileReader fr = new FileReader(file);
-             BufferedReader br = new BufferedReader(fr)) {
+             CsvTokenizer csv = new CsvTokenizer(fr)) {
 
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue; // skip empty lines
-                Product p = Product.fromFileString(line);
+            while (csv.next()) {                    // skips empty lines
+                Product p = Product.fromFileString(csv);
                 if (p != null) {
                     loaded.add(p);
                 }
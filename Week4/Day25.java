@@ -1,5 +1,11 @@
 // Day25.java
 import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 /**
@@ -10,6 +16,12 @@ import java.util.*;
  * - Renamed variables for clarity.
  * - Separated file operations into a dedicated FileHandler class.
  * - Added simple debug prints (can be toggled).
+ * - Added BinaryFileHandler: a memory-mapped, fixed-record alternative
+ *   to the CSV FileHandler (run `java Day25 binary` to use it; names
+ *   are limited to 58 UTF-8 bytes there). Day25Bench compares the two.
+ *
+ * Reads CSV files with CsvTokenizer.java from this folder, so compile both
+ * (javac Day25.java picks it up) rather than launching java Day25.java.
  */
 public class Day25 {
 
@@ -35,35 +47,45 @@ public class Day25 {
         public void setPrice(double price) { this.price = price; }
         public void setQuantity(int quantity) { this.quantity = quantity; }
 
+        // Through the getters, so subclasses that keep their data elsewhere print correctly
         @Override
         public String toString() {
-            return String.format("ID: %d | %s | $%.2f | Qty: %d", id, name, price, quantity);
+            return String.format("ID: %d | %s | $%.2f | Qty: %d", getId(), getName(), getPrice(), getQuantity());
         }
 
         public String toCsv() {
-            return id + "," + name + "," + price + "," + quantity;
+            return getId() + "," + CsvTokenizer.quote(getName()) + "," + getPrice() + "," + getQuantity();
         }
 
         public static Product fromCsv(String line) {
-            String[] parts = line.split(",");
-            if (parts.length == 4) {
+            return fromCsv(CsvTokenizer.ofLine(line));
+        }
+
+        public static Product fromCsv(CsvTokenizer csv) {
+            if (csv.fieldCount() == 4) {
                 try {
                     return new Product(
-                        Integer.parseInt(parts[0].trim()),
-                        parts[1].trim(),
-                        Double.parseDouble(parts[2].trim()),
-                        Integer.parseInt(parts[3].trim())
+                        csv.getInt(0),
+                        csv.getString(1),
+                        csv.getDouble(2),
+                        csv.getInt(3)
                     );
                 } catch (NumberFormatException e) {
-                    System.err.println("Malformed line: " + line);
+                    System.err.println("Malformed line: " + csv.record());
                 }
             }
             return null;
         }
     }
 
+    // ---------- Storage interface (CSV or binary file) ----------
+    public interface ProductStorage {
+        void save(List<Product> products) throws IOException;
+        List<Product> load() throws IOException;
+    }
+
     // ---------- FileHandler class (new, separates file I/O) ----------
-    public static class FileHandler {
+    public static class FileHandler implements ProductStorage {
         private final String filename;
 
         public FileHandler(String filename) {
@@ -86,13 +108,10 @@ public class Day25 {
             if (!file.exists()) {
                 return result; // empty list
             }
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (!line.isBlank()) {
-                        Product p = Product.fromCsv(line);
-                        if (p != null) result.add(p);
-                    }
+            try (CsvTokenizer csv = new CsvTokenizer(new FileReader(file))) {
+                while (csv.next()) {                        // blank lines are skipped
+                    Product p = Product.fromCsv(csv);
+                    if (p != null) result.add(p);
                 }
             }
             System.out.println("Loaded " + result.size() + " products from " + filename);
@@ -100,13 +119,330 @@ public class Day25 {
         }
     }
 
+    // ---------- BinaryFileHandler class (memory-mapped, fixed-size records) ----------
+    /*
+     * File layout (big-endian):
+     *   header  : magic, version, record size, slots used        (4 ints)
+     *   records : id (int), live (byte), name length (byte),
+     *             name (NAME_BYTES of UTF-8), price (double), quantity (int)
+     *
+     * The file is memory-mapped. load() only reads the id and live flag
+     * of each slot; a product's name, price and quantity are copied out
+     * of its record the first time one of them is asked for. Edits stay
+     * in the product, which remembers its slot and whether it changed,
+     * so save() writes only changed and new records, deletes removed
+     * ones, and flushes just the records it touched. As with the CSV
+     * FileHandler, nothing reaches the file until save(), and load()
+     * re-reads the file, dropping unsaved edits.
+     *
+     * Deleted slots are reused. Before save() frees or rewrites a slot,
+     * the product load() handed out for it copies its values if it has
+     * not read them yet, and the slot gets a new stamp; a product whose
+     * stamp no longer matches its slot is stored by id like a new one.
+     * save() swaps each new product in the list for a tracked copy, so
+     * later saves rewrite it only when it is edited.
+     *
+     * Names longer than NAME_BYTES of UTF-8 do not fit a record: save()
+     * refuses them before writing anything. Not thread-safe (like the
+     * rest of Day 25).
+     */
+    public static class BinaryFileHandler implements ProductStorage {
+        static final int NAME_BYTES = 58;
+
+        private static final int MAGIC       = 0x44323542;   // "D25B"
+        private static final int VERSION     = 1;
+        private static final int HEADER_SIZE = 16;
+        private static final int RECORD_SIZE = 80;
+        private static final int OFF_ID      = 0;
+        private static final int OFF_LIVE    = 4;
+        private static final int OFF_NAMELEN = 5;
+        private static final int OFF_NAME    = 6;
+        private static final int OFF_PRICE   = 64;
+        private static final int OFF_QTY     = 72;
+
+        private final Path file;
+        private FileChannel channel;
+        private MappedByteBuffer map;
+        private int capacity;                                    // slots the mapping can hold
+        private int slotsUsed;                                   // high-water mark of slots
+        private final Map<Integer, Integer> slotById = new HashMap<>();
+        private final Deque<Integer> freeSlots = new ArrayDeque<>();
+        private final BitSet live  = new BitSet();              // slots holding a product
+        private final BitSet dirty = new BitSet();              // slots written since the last flush
+        private long[] stamps = new long[0];                     // current stamp of each slot
+        private long nextStamp = 1;
+        private MappedProduct[] unread = new MappedProduct[0];   // loaded products yet to copy their record
+        private int lastSaveWrites;
+
+        public BinaryFileHandler(String filename) {
+            this.file = Paths.get(filename);
+        }
+
+        public List<Product> load() throws IOException {
+            close();                                             // re-read the file as it is now
+            open();
+            List<Product> result = new ArrayList<>(slotById.size());
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                MappedProduct p = new MappedProduct(this, slot, stamps[slot], map.getInt(offset(slot) + OFF_ID));
+                unread[slot] = p;
+                result.add(p);
+            }
+            System.out.println("Loaded " + result.size() + " products from " + file);
+            return result;
+        }
+
+        public void save(List<Product> products) throws IOException {
+            open();
+            for (Product p : products) {                         // refuse before writing anything
+                MappedProduct mp = inPlace(p);
+                if ((mp == null || mp.changed) && nameBytes(p.getName()).length > NAME_BYTES)
+                    throw new IOException("Name longer than " + NAME_BYTES + " UTF-8 bytes: " + p.getName());
+            }
+            BitSet kept = new BitSet(slotsUsed);
+            for (ListIterator<Product> it = products.listIterator(); it.hasNext(); ) {
+                Product p = it.next();
+                MappedProduct mp = inPlace(p);
+                if (mp != null) {
+                    kept.set(mp.slot);
+                    if (mp.changed) {
+                        write(mp.slot, mp);
+                        mp.changed = false;
+                    }
+                    continue;
+                }
+                Integer slot = slotById.get(p.getId());          // new, or from an earlier load()
+                if (slot != null && kept.get(slot)) continue;    // duplicate id: first one wins
+                int at = put(p);
+                kept.set(at);
+                it.set(new MappedProduct(this, at, stamps[at], p));
+            }
+            BitSet removed = (BitSet) live.clone();
+            removed.andNot(kept);
+            for (int slot = removed.nextSetBit(0); slot >= 0; slot = removed.nextSetBit(slot + 1)) {
+                int at = offset(slot);
+                release(slot);
+                slotById.remove(map.getInt(at + OFF_ID));
+                map.put(at + OFF_LIVE, (byte) 0);
+                live.clear(slot);
+                freeSlots.push(slot);
+                touched(slot);
+            }
+            lastSaveWrites = dirty.cardinality();
+            flush();
+            System.out.println("Saved " + products.size() + " products to " + file
+                    + " (records written: " + lastSaveWrites + ")");
+        }
+
+        /** Number of records save() wrote last time. */
+        public int lastSaveWrites() { return lastSaveWrites; }
+
+        public void close() throws IOException {
+            if (channel == null) return;
+            for (int slot = 0; slot < slotsUsed; slot++) {
+                if (unread[slot] != null) release(slot);         // products outlive the mapping
+            }
+            flush();
+            channel.close();
+            channel = null;
+            map = null;
+            slotById.clear();
+            freeSlots.clear();
+            live.clear();
+            slotsUsed = 0;
+        }
+
+        // ---- records ----
+
+        private void open() throws IOException {
+            if (channel != null) return;
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            if (size == 0) {
+                mapSlots(64);
+                map.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, RECORD_SIZE).putInt(12, 0);
+                return;
+            }
+            if (size < HEADER_SIZE) throw new IOException(file + " is not a product file");
+            mapSlots((int) Math.max(64, (size - HEADER_SIZE) / RECORD_SIZE));
+            if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION || map.getInt(8) != RECORD_SIZE)
+                throw new IOException(file + " is not a version " + VERSION + " product file");
+            slotsUsed = map.getInt(12);
+            for (int slot = 0; slot < slotsUsed; slot++) {
+                stamps[slot] = nextStamp++;
+                int at = offset(slot);
+                if (map.get(at + OFF_LIVE) == 1) {
+                    slotById.put(map.getInt(at + OFF_ID), slot);
+                    live.set(slot);
+                } else {
+                    freeSlots.push(slot);
+                }
+            }
+        }
+
+        private void mapSlots(int slots) throws IOException {
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slots * RECORD_SIZE);
+            capacity = slots;
+            if (stamps.length < slots) {
+                stamps = Arrays.copyOf(stamps, slots);
+                unread = Arrays.copyOf(unread, slots);
+            }
+        }
+
+        // p itself if it came from this file and its slot is still its own
+        private MappedProduct inPlace(Product p) {
+            if (!(p instanceof MappedProduct)) return null;
+            MappedProduct mp = (MappedProduct) p;
+            return mp.owner == this && stamps[mp.slot] == mp.stamp ? mp : null;
+        }
+
+        // Stores p by id (a new record if its id isn't stored yet); returns the slot
+        private int put(Product p) throws IOException {
+            Integer slot = slotById.get(p.getId());
+            if (slot == null) {
+                slot = freeSlots.isEmpty() ? newSlot() : freeSlots.pop();
+                slotById.put(p.getId(), slot);
+            }
+            release(slot);
+            write(slot, p);
+            return slot;
+        }
+
+        // The record at slot is about to be freed or rewritten: the product
+        // load() handed out for it copies its values first, and the slot's
+        // new stamp tells any older product it no longer lives there
+        private void release(int slot) {
+            MappedProduct p = unread[slot];
+            if (p != null) {
+                p.read();
+                unread[slot] = null;
+            }
+            stamps[slot] = nextStamp++;
+        }
+
+        private void write(int slot, Product p) {
+            int at = offset(slot);
+            byte[] name = nameBytes(p.getName());
+            map.putInt(at + OFF_ID, p.getId());
+            map.put(at + OFF_NAMELEN, (byte) name.length);
+            map.put(at + OFF_NAME, name);
+            map.putDouble(at + OFF_PRICE, p.getPrice());
+            map.putInt(at + OFF_QTY, p.getQuantity());
+            map.put(at + OFF_LIVE, (byte) 1);
+            live.set(slot);
+            touched(slot);
+        }
+
+        private int newSlot() throws IOException {
+            if (slotsUsed == capacity) mapSlots(capacity * 2);   // grows the file too
+            map.putInt(12, slotsUsed + 1);
+            return slotsUsed++;
+        }
+
+        private static byte[] nameBytes(String name) {
+            return name.getBytes(StandardCharsets.UTF_8);
+        }
+
+        private String readName(int at) {
+            byte[] utf8 = new byte[map.get(at + OFF_NAMELEN)];
+            map.get(at + OFF_NAME, utf8);
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        private void touched(int slot) {
+            dirty.set(slot);
+        }
+
+        // Writes back the header and the changed records only, one run of
+        // neighbouring records at a time
+        private void flush() {
+            if (dirty.isEmpty()) return;
+            map.force(0, HEADER_SIZE);
+            for (int from = dirty.nextSetBit(0); from >= 0; ) {
+                int to = dirty.nextClearBit(from);
+                map.force(offset(from), (to - from) * RECORD_SIZE);
+                from = dirty.nextSetBit(to);
+            }
+            dirty.clear();
+        }
+
+        private static int offset(int slot) {
+            return HEADER_SIZE + slot * RECORD_SIZE;
+        }
+
+        // A product stored in a record. The id is read at load time; the
+        // other fields are copied out of the record on first use. Setters
+        // only mark it changed - save() writes it back.
+        private static final class MappedProduct extends Product {
+            private final BinaryFileHandler owner;
+            private final int slot;
+            private final long stamp;
+            private boolean read;
+            private boolean changed;
+
+            MappedProduct(BinaryFileHandler owner, int slot, long stamp, int id) {
+                super(id, null, 0, 0);
+                this.owner = owner;
+                this.slot  = slot;
+                this.stamp = stamp;
+            }
+
+            // Tracked copy of a product save() has just written
+            MappedProduct(BinaryFileHandler owner, int slot, long stamp, Product p) {
+                super(p.getId(), p.getName(), p.getPrice(), p.getQuantity());
+                this.owner = owner;
+                this.slot  = slot;
+                this.stamp = stamp;
+                this.read  = true;
+            }
+
+            // release() calls this before the record changes, so the stamp always matches here
+            private void read() {
+                if (read) return;
+                if (owner.stamps[slot] != stamp)
+                    throw new IllegalStateException("Record " + slot + " was reused before product " + getId() + " read it");
+                int at = offset(slot);
+                super.setName(owner.readName(at));
+                super.setPrice(owner.map.getDouble(at + OFF_PRICE));
+                super.setQuantity(owner.map.getInt(at + OFF_QTY));
+                read = true;
+            }
+
+            @Override public String getName()     { read(); return super.getName(); }
+            @Override public double getPrice()    { read(); return super.getPrice(); }
+            @Override public int    getQuantity() { read(); return super.getQuantity(); }
+
+            @Override public void setName(String name) {
+                read();
+                super.setName(name);
+                changed = true;
+            }
+
+            @Override public void setPrice(double price) {
+                read();
+                super.setPrice(price);
+                changed = true;
+            }
+
+            @Override public void setQuantity(int quantity) {
+                read();
+                super.setQuantity(quantity);
+                changed = true;
+            }
+        }
+    }
+
     // ---------- Main application ----------
     private static final String FILENAME = "inventory_refactored.txt";
+    private static final String BINARY_FILENAME = "inventory_refactored.dat";
     private static final Scanner SCANNER = new Scanner(System.in);
     private static List<Product> inventory = new ArrayList<>();
-    private static final FileHandler fileHandler = new FileHandler(FILENAME);
+    private static ProductStorage fileHandler = new FileHandler(FILENAME);
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("binary")) {
+            fileHandler = new BinaryFileHandler(BINARY_FILENAME);
+        }
+
         // Load initial data
         try {
             inventory = fileHandler.load();
@@ -243,4 +579,4 @@ public class Day25 {
         }
         return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+// Day25Bench.java
+import java.io.*;
+import java.util.*;
+
+/**
+ * Benchmark and checks for Day25's storage: edit one product in a 100k
+ * catalogue and save it, CSV rewrite against one binary record, then
+ * check that BinaryFileHandler keeps FileHandler's save/load contract.
+ *
+ * Run:
+ *   javac Day25Bench.java && java Day25Bench
+ */
+public class Day25Bench {
+
+    private static final int PRODUCTS = 100_000;
+
+    public static void main(String[] args) throws IOException {
+        File csvFile = File.createTempFile("day25", ".txt");
+        File binFile = File.createTempFile("day25", ".dat");
+        binFile.delete();
+        try {
+            benchEditOne(csvFile.getPath(), binFile.getPath());
+            checkBinaryContract(binFile.getPath());
+        } finally {
+            csvFile.delete();
+            binFile.delete();
+        }
+    }
+
+    private static void benchEditOne(String csvPath, String binPath) throws IOException {
+        List<Day25.Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) products.add(new Day25.Product(i, "Product " + i, 10 + i % 1000, i % 50));
+
+        Day25.FileHandler csv = new Day25.FileHandler(csvPath);
+        csv.save(products);
+        long start = System.nanoTime();
+        List<Day25.Product> fromCsv = csv.load();
+        long csvLoadNs = System.nanoTime() - start;
+        fromCsv.get(PRODUCTS / 2).setQuantity(7);
+        start = System.nanoTime();
+        csv.save(fromCsv);
+        long csvSaveNs = System.nanoTime() - start;
+
+        Day25.BinaryFileHandler bin = new Day25.BinaryFileHandler(binPath);
+        bin.save(new ArrayList<>(products));
+        bin.close();
+        bin = new Day25.BinaryFileHandler(binPath);
+        start = System.nanoTime();
+        List<Day25.Product> fromBin = bin.load();
+        long binLoadNs = System.nanoTime() - start;
+        fromBin.get(PRODUCTS / 2).setQuantity(7);
+        start = System.nanoTime();
+        bin.save(fromBin);
+        long binSaveNs = System.nanoTime() - start;
+        int writes = bin.lastSaveWrites();
+        bin.close();
+
+        List<Day25.Product> reread = new Day25.BinaryFileHandler(binPath).load();
+        boolean ok = reread.size() == PRODUCTS && reread.get(PRODUCTS / 2).getQuantity() == 7
+                && reread.get(PRODUCTS - 1).getName().equals("Product " + (PRODUCTS - 1));
+        System.out.printf("[Bench] %,d products, edit 1: CSV load %,d ms + save %,d ms | binary load %,d ms + save %,d ms (records written: %d) %s%n",
+                PRODUCTS, csvLoadNs / 1_000_000, csvSaveNs / 1_000_000,
+                binLoadNs / 1_000_000, binSaveNs / 1_000_000, writes, ok ? "OK" : "MISMATCH");
+    }
+
+    // Edits reach the file only on save(), a removed product keeps its
+    // values when its slot is reused, products added since the last load
+    // are written once, and names too long for a record are refused
+    private static void checkBinaryContract(String path) throws IOException {
+        Day25.BinaryFileHandler bin = new Day25.BinaryFileHandler(path);
+        List<Day25.Product> products = bin.load();
+        int before = products.get(0).getQuantity();
+        products.get(0).setQuantity(before + 1);                        // never saved
+        boolean discarded = new Day25.BinaryFileHandler(path).load().get(0).getQuantity() == before
+                && bin.load().get(0).getQuantity() == before;
+
+        products = bin.load();
+        Day25.Product removed = products.remove(1);                     // not read yet
+        bin.save(products);
+        products.add(new Day25.Product(-1, "New", 1, 1));               // takes the freed slot
+        bin.save(products);
+        boolean intact = removed.getName().equals("Product 1") && removed.getQuantity() == 1;
+        bin.save(products);
+        boolean addedOnce = bin.lastSaveWrites() == 0;
+        removed.setQuantity(2);
+        products.add(removed);                                          // stored by id, not over "New"
+        bin.save(products);
+        Set<Integer> ids = new HashSet<>();
+        for (Day25.Product p : bin.load()) ids.add(p.getId());
+        boolean bothKept = ids.contains(-1) && ids.contains(1) && ids.size() == products.size();
+
+        products = bin.load();
+        products.add(new Day25.Product(-2, "x".repeat(Day25.BinaryFileHandler.NAME_BYTES + 1), 1, 1));
+        boolean refused = false;
+        try {
+            bin.save(products);
+        } catch (IOException e) {
+            refused = bin.load().size() == products.size() - 1;
+        }
+        bin.close();
+        System.out.printf("[Check] unsaved edits discarded: %s | removed product intact after slot reuse: %s"
+                        + " | added product written once: %s | re-added product stored separately: %s | long name refused: %s%n",
+                ok(discarded), ok(intact), ok(addedOnce), ok(bothKept), ok(refused));
+    }
+
+    private static String ok(boolean passed) {
+        return passed ? "OK" : "FAIL";
+    }
+}
@@ -8,7 +8,7 @@
  * ============================================================
  * 
  * Compilation:
- *   javac Day30.java
+ *   javac Day30.java        (also compiles CsvTokenizer.java from this folder)
  * 
  * Execution:
  *   java Day30
@@ -25,6 +25,8 @@
  *   id,description,dueDate,priority,completed
  *   Example:
  *     1,Finish report,2026-03-01,HIGH,true
+ *   Descriptions containing commas or quotes are written in double quotes:
+ *     2,"Call Sam, then Alex",2026-03-02,LOW,false
  * 
  * Project Structure (all in one file for simplicity):
  *   - Task class (inner static)
@@ -50,6 +52,7 @@ public class Day30 {
     // ---------- Task class ----------
     public static class Task {
         public enum Priority { LOW, MEDIUM, HIGH }
+        private static final Priority[] PRIORITIES = Priority.values();
 
         private static int idCounter = 1;
         private final int id;
@@ -90,21 +93,24 @@ public class Day30 {
         }
 
         public String toCsv() {
-            return id + "," + description + "," + dueDate + "," + priority + "," + completed;
+            return id + "," + CsvTokenizer.quote(description) + "," + dueDate + "," + priority + "," + completed;
         }
 
         public static Task fromCsv(String line) {
-            String[] parts = line.split(",", -1);
-            if (parts.length == 5) {
+            return fromCsv(CsvTokenizer.ofLine(line));
+        }
+
+        public static Task fromCsv(CsvTokenizer csv) {
+            if (csv.fieldCount() == 5) {
                 try {
-                    int id = Integer.parseInt(parts[0].trim());
-                    String desc = parts[1].trim();
-                    LocalDate date = LocalDate.parse(parts[2].trim());
-                    Priority prio = Priority.valueOf(parts[3].trim().toUpperCase());
-                    boolean done = Boolean.parseBoolean(parts[4].trim());
+                    int id = csv.getInt(0);
+                    String desc = csv.getString(1);
+                    LocalDate date = csv.getDate(2);
+                    Priority prio = csv.getEnum(3, PRIORITIES);
+                    boolean done = csv.getBoolean(4);
                     return new Task(id, desc, date, prio, done);
                 } catch (IllegalArgumentException e) {
-                    System.err.println("Skipping malformed line: " + line);
+                    System.err.println("Skipping malformed line: " + csv.record());
                 }
             }
             return null;
@@ -127,11 +133,9 @@ public class Day30 {
                 System.out.println("No existing task file. Starting fresh.");
                 return;
             }
-            try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    if (line.isBlank()) continue;
-                    Task t = Task.fromCsv(line);
+            try (CsvTokenizer csv = new CsvTokenizer(new FileReader(file))) {
+                while (csv.next()) {                        // blank lines are skipped
+                    Task t = Task.fromCsv(csv);
                     if (t != null) tasks.add(t);
                 }
                 System.out.println("Loaded " + tasks.size() + " tasks from " + filename);